@@ -0,0 +1,70 @@
+package com.blockflow.benchmark;
+
+import com.blockflow.dto.DimensionFilter;
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.service.ProductSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductSearchService.advancedSearch over a synthetic catalog in embedded H2.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdvancedSearchBenchmark {
+
+    private static final DimensionFilter NO_DIMENSIONS = new DimensionFilter();
+
+    @Param({ "1000", "10000", "100000" })
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductSearchService productSearchService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("search" + catalogSize);
+        BenchmarkSupport.loadCatalog(context, catalogSize);
+        productSearchService = context.getBean(ProductSearchService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductResponse> keyword() {
+        return productSearchService.advancedSearch("aac blo", null, 0.0, 1_000_000.0, NO_DIMENSIONS, "id", 0, 12);
+    }
+
+    @Benchmark
+    public Page<ProductResponse> keywordCategoryPopular() {
+        return productSearchService.advancedSearch("thermal", "Specialty", 10.0, 150.0, NO_DIMENSIONS,
+                "popular", 0, 12);
+    }
+
+    @Benchmark
+    public Page<ProductResponse> categoryPriceSort() {
+        return productSearchService.advancedSearch(null, "Construction", 10.0, 150.0, NO_DIMENSIONS,
+                "price_asc", 2, 12);
+    }
+}
@@ -0,0 +1,125 @@
+package com.blockflow.benchmark;
+
+import com.blockflow.BlockflowBackendApplication;
+import com.blockflow.model.Product;
+import com.blockflow.search.ProductSearchIndex;
+import com.blockflow.util.JwtUtil;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared fixtures for the JMH benchmarks: a synthetic catalog and a running
+ * application context on embedded H2.
+ */
+final class BenchmarkSupport {
+
+    static final String[] CATEGORIES = { "Construction", "Specialty", "Partition", "Lintel", "Insulation",
+            "Paving", "Decorative", "Load Bearing" };
+
+    private static final String[] NAME_WORDS = { "Standard", "Jumbo", "Partition", "U-Shape", "Lintel", "AAC",
+            "Block", "Brick", "Panel", "Hollow", "Solid", "Lightweight", "Thermal", "Acoustic", "Corner" };
+
+    private static final String[] DESCRIPTION_WORDS = { "block", "for", "general", "construction", "load",
+            "bearing", "walls", "partition", "thinner", "door", "window", "lintels", "beams", "bond", "fire",
+            "rated", "insulated", "external", "internal", "grade" };
+
+    // Ids for synthetic rows start here so they never collide with seeded data
+    private static final long FIRST_ID = 1_000_000L;
+
+    private static final String INSERT_SQL = "INSERT INTO products (id, name, dimensions, price_per_unit, "
+            + "stock_quantity, description, weight, category, view_count, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private BenchmarkSupport() {
+    }
+
+    static Product product(Random random, long id) {
+        return Product.builder()
+                .id(id)
+                .name(words(random, NAME_WORDS, 3))
+                .dimensions("600x200x" + (50 + random.nextInt(200)) + "mm")
+                .pricePerUnit(BigDecimal.valueOf(1000 + random.nextInt(20000), 2))
+                .stockQuantity(random.nextInt(1000))
+                .description(words(random, DESCRIPTION_WORDS, 8))
+                .weight(BigDecimal.valueOf(100 + random.nextInt(2000), 2))
+                .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .viewCount((long) random.nextInt(10_000))
+                .createdAt(LocalDateTime.now().minusMinutes(random.nextInt(100_000)))
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        setField(jwtUtil, "secret", "BlockFlowSecretKeyForJWTTokenGenerationAndValidation123456");
+        setField(jwtUtil, "expiration", 86_400_000L);
+        Method init = ReflectionUtils.findMethod(JwtUtil.class, "init");
+        ReflectionUtils.makeAccessible(init);
+        ReflectionUtils.invokeMethod(init, jwtUtil);
+        return jwtUtil;
+    }
+
+    /**
+     * Starts the application on a private in-memory H2 database, on a random
+     * port, with SQL logging off.
+     */
+    static ConfigurableApplicationContext startApplication(String databaseName) {
+        // Passed as arguments so they override application.properties
+        return new SpringApplicationBuilder(BlockflowBackendApplication.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Bulk inserts a synthetic catalog and rebuilds the search index over it.
+     */
+    static void loadCatalog(ConfigurableApplicationContext context, int size) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < size; i++) {
+            Product p = product(random, FIRST_ID + i);
+            batch.add(new Object[] { p.getId(), p.getName(), p.getDimensions(), p.getPricePerUnit(),
+                    p.getStockQuantity(), p.getDescription(), p.getWeight(), p.getCategory(), p.getViewCount(),
+                    Timestamp.valueOf(p.getCreatedAt()), Timestamp.valueOf(p.getUpdatedAt()) });
+            if (batch.size() == 1000) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+        context.getBean(ProductSearchIndex.class).rebuild();
+    }
+
+    private static String words(Random random, String[] vocabulary, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return text.toString();
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        java.lang.reflect.Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
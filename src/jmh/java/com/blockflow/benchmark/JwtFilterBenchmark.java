@@ -0,0 +1,74 @@
+package com.blockflow.benchmark;
+
+import com.blockflow.filter.JwtFilter;
+import com.blockflow.security.TokenPrincipalCache;
+import com.blockflow.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtFilter end to end against the seeded users in embedded H2, with the
+ * principal cache warm and with it cleared before every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private JwtFilter jwtFilter;
+    private TokenPrincipalCache tokenPrincipalCache;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.startApplication("jwtfilter");
+        jwtFilter = context.getBean(JwtFilter.class);
+        tokenPrincipalCache = context.getBean(TokenPrincipalCache.class);
+        authorization = "Bearer " + context.getBean(JwtUtil.class).generateToken("testuser1");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        if (!cached) {
+            tokenPrincipalCache.invalidateAll();
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader("Authorization", authorization);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtFilter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
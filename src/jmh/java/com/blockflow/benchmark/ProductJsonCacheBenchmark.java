@@ -0,0 +1,99 @@
+package com.blockflow.benchmark;
+
+import com.blockflow.config.ProductJsonCacheConfig;
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.mapper.ProductMapper;
+import com.blockflow.model.Product;
+import com.blockflow.service.ProductJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work ProductJsonCache replaces once a product is cached: mapping and
+ * serializing a catalog page, and a single product for GET /{id}/view. Run
+ * with -prof gc for the heap allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductJsonCacheBenchmark {
+
+    @Param({ "12", "100" })
+    public int pageSize;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private ObjectMapper plainMapper;
+    private ObjectMapper cachedMapper;
+    private ProductJsonCache cache;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() throws Exception {
+        cache = new ProductJsonCache(true, 64, 4, 131_072);
+        plainMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        cachedMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new ProductJsonCacheConfig().productJsonCacheModule(cache))
+                .build();
+        Random random = new Random(42);
+        products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            products.add(BenchmarkSupport.product(random, i + 1));
+        }
+        // Every product cached, as after the first request for it
+        try (ProductJsonCache.ReadScope scope = cache.openReadScope()) {
+            cachedMapper.writeValueAsBytes(page());
+        }
+    }
+
+    @Benchmark
+    public byte[] pageSerialized() throws Exception {
+        return plainMapper.writeValueAsBytes(page());
+    }
+
+    @Benchmark
+    public byte[] pageFromCache() throws Exception {
+        return cachedMapper.writeValueAsBytes(page());
+    }
+
+    @Benchmark
+    public byte[] viewSerialized() throws Exception {
+        return plainMapper.writeValueAsBytes(productMapper.toResponse(products.get(0)));
+    }
+
+    @Benchmark
+    public byte[] viewFromCache() {
+        return cache.get(products.get(0).getId());
+    }
+
+    // List endpoints still map the entities; only the serialization is saved
+    private List<ProductResponse> page() {
+        List<ProductResponse> page = new ArrayList<>(products.size());
+        for (Product product : products) {
+            page.add(productMapper.toResponse(product));
+        }
+        return page;
+    }
+}
@@ -0,0 +1,44 @@
+package com.blockflow.benchmark;
+
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.mapper.ProductMapper;
+import com.blockflow.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductMapper.toResponse, the per-row cost of every catalog read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+
+    private ProductMapper productMapper;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        productMapper = new ProductMapper();
+        product = BenchmarkSupport.product(new Random(42), 1L);
+    }
+
+    @Benchmark
+    public ProductResponse toResponse() {
+        return productMapper.toResponse(product);
+    }
+}
@@ -0,0 +1,66 @@
+package com.blockflow.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Garbage collections so far and the bytes allocated by each of the server's
+ * request threads, taken before and after a measured period. The load
+ * generator shares the JVM, so only the GC figures include its garbage.
+ */
+final class JvmSample {
+
+    // Tomcat request threads, e.g. http-nio-41523-exec-7
+    private static final String REQUEST_THREAD = "-exec-";
+
+    private final long collections;
+    private final long collectionMillis;
+    private final Map<Long, Long> requestThreadBytes;
+
+    private JvmSample(long collections, long collectionMillis, Map<Long, Long> requestThreadBytes) {
+        this.collections = collections;
+        this.collectionMillis = collectionMillis;
+        this.requestThreadBytes = requestThreadBytes;
+    }
+
+    static JvmSample take() {
+        long collections = 0;
+        long collectionMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(0, collector.getCollectionCount());
+            collectionMillis += Math.max(0, collector.getCollectionTime());
+        }
+        Map<Long, Long> bytes = new HashMap<>();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (ThreadInfo thread : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (thread != null && thread.getThreadName().contains(REQUEST_THREAD)) {
+                long allocated = threads.getThreadAllocatedBytes(thread.getThreadId());
+                if (allocated >= 0) {
+                    bytes.put(thread.getThreadId(), allocated);
+                }
+            }
+        }
+        return new JvmSample(collections, collectionMillis, bytes);
+    }
+
+    /**
+     * The change since an earlier sample, for the result file.
+     */
+    Map<String, Object> since(JvmSample before, int requests) {
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : requestThreadBytes.entrySet()) {
+            // Threads started in between count from zero
+            allocated += thread.getValue() - before.requestThreadBytes.getOrDefault(thread.getKey(), 0L);
+        }
+        Map<String, Object> jvm = new LinkedHashMap<>();
+        jvm.put("gcCount", collections - before.collections);
+        jvm.put("gcMillis", collectionMillis - before.collectionMillis);
+        jvm.put("serverAllocatedMb", Math.round(allocated / 1e6 * 10) / 10.0);
+        jvm.put("serverAllocatedKbPerRequest", requests > 0 ? Math.round(allocated / 1e3 / requests * 10) / 10.0 : 0.0);
+        return jvm;
+    }
+}
@@ -0,0 +1,181 @@
+package com.blockflow.loadtest;
+
+import com.blockflow.BlockflowBackendApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test of the running application over HTTP, on an embedded H2 file
+ * database with a synthetic catalog. The catalog and users are written through a first
+ * application context, which is then closed. A second context starts on that
+ * database the way production does: migrations, startup index builds and cold
+ * caches. The scenarios then run one after another against it, and the
+ * latency percentiles and throughput of each go to a JSON file.
+ *
+ * The load generator shares the JVM and CPUs with the application, so compare
+ * results from the same machine only.
+ */
+public final class LoadTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Path out = options.out().toAbsolutePath();
+        Files.createDirectories(out.getParent());
+        // Read up front, the new results may overwrite it
+        JsonNode baseline = options.baseline() != null ? JSON.readTree(options.baseline().toFile()) : null;
+        // A file database: it has to outlive the seeding context, and devtools
+        // drops in-memory databases when a context closes
+        Path database = out.getParent().resolve("loadtest-db");
+        Files.deleteIfExists(Path.of(database + ".mv.db"));
+        Files.deleteIfExists(Path.of(database + ".trace.db"));
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:file:" + database,
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                // One client address for every request; the limiter would measure itself
+                "--blockflow.rate-limit.rules=",
+                "--spring.devtools.livereload.enabled=false"));
+        options.appProperties().forEach(property -> applicationArgs.add("--" + property));
+        // Read before the environment exists; a devtools restart would rerun main
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        System.out.printf("Seeding %d products and %d users%n", options.products(), options.users());
+        try (ConfigurableApplicationContext seeding = start(applicationArgs)) {
+            LoadTestData.load(seeding, options);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label());
+        report.put("startedAt", Instant.now().toString());
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("config", options.describe());
+        Map<String, Object> results = new LinkedHashMap<>();
+        report.put("scenarios", results);
+
+        try (ConfigurableApplicationContext application = start(applicationArgs)) {
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            URI baseUri = URI.create("http://localhost:" + port + "/");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            List<String> tokens = options.scenarios().contains(Scenario.ORDERS)
+                    ? login(client, baseUri, options)
+                    : List.of();
+            Scenario.Target target = new Scenario.Target(baseUri, options, tokens);
+
+            for (Scenario scenario : options.scenarios()) {
+                System.out.printf("Running %s: %ds warmup, %ds measured, %d workers%n", scenario.id(),
+                        options.warmupSeconds(), options.durationSeconds(), options.concurrency());
+                Map<String, Object> result = new ScenarioRun(scenario, target, client).execute();
+                results.put(scenario.id(), result);
+                printSummary(scenario.id(), result);
+            }
+        }
+
+        JSON.writeValue(out.toFile(), report);
+        System.out.println("Results written to " + out);
+        if (baseline != null) {
+            // Through text, so both sides have the same number node types
+            compare(baseline, JSON.readTree(JSON.writeValueAsString(report)));
+        }
+        // The HTTP client and leftovers of the application contexts are not
+        // all daemon threads
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext start(List<String> applicationArgs) {
+        return new SpringApplicationBuilder(BlockflowBackendApplication.class)
+                .run(applicationArgs.toArray(String[]::new));
+    }
+
+    // Tokens for the order scenario, a couple per worker
+    private static List<String> login(HttpClient client, URI baseUri, LoadTestOptions options)
+            throws IOException, InterruptedException {
+        Scenario.Target anonymous = new Scenario.Target(baseUri, options, List.of());
+        List<String> tokens = new ArrayList<>();
+        int count = Math.min(options.users(), options.concurrency() * 2);
+        for (int i = 0; i < count; i++) {
+            String body = "{\"username\":\"" + LoadTestData.username(i) + "\",\"password\":\""
+                    + LoadTestData.PASSWORD + "\"}";
+            HttpResponse<String> response = client.send(anonymous.post("/api/auth/login", body, null),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login of " + LoadTestData.username(i) + " failed with "
+                        + response.statusCode() + ": " + response.body());
+            }
+            tokens.add(JSON.readTree(response.body()).get("token").asText());
+        }
+        return tokens;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void printSummary(String scenario, Map<String, Object> result) {
+        Map<String, Object> latency = (Map<String, Object>) result.get("latencyMillis");
+        System.out.printf("  %-7s %8d requests %9.1f/s  p50 %8.2f  p95 %8.2f  p99 %8.2f  max %9.2f ms  errors %d%n",
+                scenario, result.get("requests"), result.get("throughputPerSecond"), latency.get("p50"),
+                latency.get("p95"), latency.get("p99"), latency.get("max"), result.get("errors"));
+        Map<String, Object> jvm = (Map<String, Object>) result.get("jvm");
+        System.out.printf("  %-7s gc %d (%d ms)  server allocated %.1f KB/request%n", "", jvm.get("gcCount"),
+                jvm.get("gcMillis"), jvm.get("serverAllocatedKbPerRequest"));
+    }
+
+    // Percentage change against an earlier result file, per scenario
+    private static void compare(JsonNode baseline, JsonNode current) {
+        if (!baseline.path("config").equals(current.path("config"))) {
+            System.out.println("Warning: baseline was run with a different config " + baseline.path("config"));
+        }
+        System.out.println("Change against baseline " + baseline.path("label").asText()
+                + " (" + baseline.path("startedAt").asText() + "):");
+        current.path("scenarios").fields().forEachRemaining(entry -> {
+            JsonNode before = baseline.path("scenarios").path(entry.getKey());
+            if (before.isMissingNode()) {
+                System.out.printf("  %-7s not in baseline%n", entry.getKey());
+                return;
+            }
+            JsonNode after = entry.getValue();
+            System.out.printf("  %-7s throughput %s  p50 %s  p95 %s  p99 %s%n", entry.getKey(),
+                    change(before.path("throughputPerSecond"), after.path("throughputPerSecond")),
+                    change(before.path("latencyMillis").path("p50"), after.path("latencyMillis").path("p50")),
+                    change(before.path("latencyMillis").path("p95"), after.path("latencyMillis").path("p95")),
+                    change(before.path("latencyMillis").path("p99"), after.path("latencyMillis").path("p99")));
+            System.out.printf("  %-7s gc count %s  gc time %s  allocated per request %s%n", "",
+                    change(before.path("jvm").path("gcCount"), after.path("jvm").path("gcCount")),
+                    change(before.path("jvm").path("gcMillis"), after.path("jvm").path("gcMillis")),
+                    change(before.path("jvm").path("serverAllocatedKbPerRequest"),
+                            after.path("jvm").path("serverAllocatedKbPerRequest")));
+        });
+    }
+
+    private static String change(JsonNode before, JsonNode after) {
+        if (before.asDouble() == 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (after.asDouble() - before.asDouble()) / before.asDouble() * 100);
+    }
+}
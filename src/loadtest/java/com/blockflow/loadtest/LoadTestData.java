@@ -0,0 +1,120 @@
+package com.blockflow.loadtest;
+
+import com.blockflow.model.BlockDimensions;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic catalog and user accounts for the load test, written straight to
+ * the database with JDBC batches. The same seed always produces the same rows.
+ */
+final class LoadTestData {
+
+    static final String[] CATEGORIES = { "Construction", "Specialty", "Partition", "Lintel", "Insulation",
+            "Paving", "Decorative", "Load Bearing" };
+
+    static final String[] NAME_WORDS = { "Standard", "Jumbo", "Partition", "U-Shape", "Lintel", "AAC",
+            "Block", "Brick", "Panel", "Hollow", "Solid", "Lightweight", "Thermal", "Acoustic", "Corner" };
+
+    private static final String[] DESCRIPTION_WORDS = { "block", "for", "general", "construction", "load",
+            "bearing", "walls", "partition", "thinner", "door", "window", "lintels", "beams", "bond", "fire",
+            "rated", "insulated", "external", "internal", "grade" };
+
+    // Ids for synthetic rows start here so they never collide with seeded data
+    static final long FIRST_PRODUCT_ID = 1_000_000L;
+
+    static final String PASSWORD = "LoadTest123";
+
+    // Hot products never run out of stock during an order burst
+    private static final int HOT_STOCK = 100_000_000;
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final String PRODUCT_SQL = "INSERT INTO products (id, name, dimensions, length_mm, height_mm, "
+            + "thickness_mm, volume_mm3, price_per_unit, stock_quantity, description, weight, category, "
+            + "view_count, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String USER_SQL = "INSERT INTO users (username, email, password, first_name, last_name, "
+            + "role, enabled, created_at) VALUES (?, ?, ?, ?, ?, 'USER', TRUE, ?)";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private LoadTestData() {
+    }
+
+    static String username(int index) {
+        return "loadtest" + index;
+    }
+
+    /**
+     * Inserts the products, the first hotProducts of them with unlimited
+     * stock, and the users, all sharing PASSWORD.
+     */
+    static void load(ConfigurableApplicationContext context, LoadTestOptions options) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random random = new Random(options.seed());
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < options.products(); i++) {
+            batch.add(product(random, i, i < options.hotProducts()));
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(PRODUCT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(PRODUCT_SQL, batch);
+            batch.clear();
+        }
+
+        // One BCrypt hash for everyone; logins still pay for a full check
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        Timestamp createdAt = Timestamp.valueOf(EPOCH);
+        for (int i = 0; i < options.users(); i++) {
+            batch.add(new Object[] { username(i), username(i) + "@loadtest.local", hash, "Load", "Test " + i,
+                    createdAt });
+        }
+        jdbcTemplate.batchUpdate(USER_SQL, batch);
+    }
+
+    private static Object[] product(Random random, int index, boolean hot) {
+        String dimensions = "600x200x" + (50 + random.nextInt(200)) + "mm";
+        BlockDimensions parsed = BlockDimensions.parse(dimensions);
+        LocalDateTime createdAt = EPOCH.minusMinutes(random.nextInt(500_000));
+        return new Object[] {
+                FIRST_PRODUCT_ID + index,
+                words(random, NAME_WORDS, 3),
+                dimensions,
+                parsed.getLengthMm(),
+                parsed.getHeightMm(),
+                parsed.getThicknessMm(),
+                parsed.getVolumeMm3(),
+                BigDecimal.valueOf(1000 + random.nextInt(20000), 2),
+                hot ? HOT_STOCK : random.nextInt(1000),
+                words(random, DESCRIPTION_WORDS, 8),
+                BigDecimal.valueOf(100 + random.nextInt(2000), 2),
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                (long) random.nextInt(10_000),
+                Timestamp.valueOf(createdAt),
+                Timestamp.valueOf(createdAt.plusMinutes(random.nextInt(10_000))) };
+    }
+
+    private static String words(Random random, String[] vocabulary, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return text.toString();
+    }
+}
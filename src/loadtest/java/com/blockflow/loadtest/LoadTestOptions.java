@@ -0,0 +1,106 @@
+package com.blockflow.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of the load test, as --name=value pairs. Every option has a
+ * default, so a bare run is reproducible as well.
+ */
+record LoadTestOptions(
+        int products,
+        int users,
+        int hotProducts,
+        int concurrency,
+        int warmupSeconds,
+        int durationSeconds,
+        long seed,
+        List<Scenario> scenarios,
+        Path out,
+        Path baseline,
+        String label,
+        List<String> appProperties) {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("products", "20000");
+        DEFAULTS.put("users", "100");
+        DEFAULTS.put("hot-products", "5");
+        DEFAULTS.put("concurrency", "8");
+        DEFAULTS.put("warmup", "5");
+        DEFAULTS.put("duration", "20");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("scenarios", "browse,search,view,orders,login");
+        DEFAULTS.put("out", "target/loadtest/loadtest-result.json");
+        DEFAULTS.put("baseline", "");
+        DEFAULTS.put("label", "");
+        // Extra application properties, name=value separated by ';'
+        DEFAULTS.put("app-properties", "");
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0 || !DEFAULTS.containsKey(arg.substring(2, equals))) {
+                throw new IllegalArgumentException("Unknown option " + arg + ", expected --name=value with name one of "
+                        + DEFAULTS.keySet());
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : values.get("scenarios").split(",")) {
+            if (!name.isBlank()) {
+                scenarios.add(Scenario.byName(name.trim()));
+            }
+        }
+        List<String> appProperties = new ArrayList<>();
+        for (String property : values.get("app-properties").split(";")) {
+            if (!property.isBlank()) {
+                if (property.indexOf('=') < 1) {
+                    throw new IllegalArgumentException("Expected name=value in app-properties, got " + property);
+                }
+                appProperties.add(property.trim());
+            }
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                Integer.parseInt(values.get("products")),
+                Integer.parseInt(values.get("users")),
+                Integer.parseInt(values.get("hot-products")),
+                Integer.parseInt(values.get("concurrency")),
+                Integer.parseInt(values.get("warmup")),
+                Integer.parseInt(values.get("duration")),
+                Long.parseLong(values.get("seed")),
+                List.copyOf(scenarios),
+                Path.of(values.get("out")),
+                values.get("baseline").isEmpty() ? null : Path.of(values.get("baseline")),
+                values.get("label"),
+                List.copyOf(appProperties));
+        if (options.products < 1 || options.users < 1 || options.hotProducts < 1
+                || options.hotProducts > options.products || options.concurrency < 1 || options.warmupSeconds < 0
+                || options.durationSeconds < 1 || scenarios.isEmpty()) {
+            throw new IllegalArgumentException("products, users, concurrency and duration must be positive, "
+                    + "hot-products between 1 and products, and at least one scenario given");
+        }
+        return options;
+    }
+
+    // Recorded in the result file so two runs can be compared like for like
+    Map<String, Object> describe() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("products", products);
+        config.put("users", users);
+        config.put("hotProducts", hotProducts);
+        config.put("concurrency", concurrency);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("seed", seed);
+        config.put("appProperties", appProperties);
+        return config;
+    }
+}
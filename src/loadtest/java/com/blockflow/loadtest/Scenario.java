@@ -0,0 +1,130 @@
+package com.blockflow.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * The request mixes the load test can run. Each worker draws its requests from
+ * its own seeded Random, so a scenario sends the same sequence on every run.
+ */
+enum Scenario {
+
+    /** Catalog pages: /sort with every sort key, /filter by category and price. */
+    BROWSE("browse") {
+        private final String[] sorts = { "price_asc", "price_desc", "newest", "popular" };
+
+        @Override
+        HttpRequest next(Target target, Random random) {
+            if (random.nextBoolean()) {
+                return target.get("/api/products/sort?sortBy=" + pick(random, sorts)
+                        + "&page=" + random.nextInt(50) + "&limit=12");
+            }
+            int minPrice = 10 + random.nextInt(90);
+            return target.get("/api/products/filter?category=" + encode(pick(random, LoadTestData.CATEGORIES))
+                    + "&minPrice=" + minPrice + "&maxPrice=" + (minPrice + 20 + random.nextInt(100))
+                    + "&page=" + random.nextInt(10) + "&limit=12");
+        }
+    },
+
+    /** Keyword search, three in four plain /search, the rest /search-advanced. */
+    SEARCH("search") {
+        @Override
+        HttpRequest next(Target target, Random random) {
+            String keyword = pick(random, LoadTestData.NAME_WORDS).toLowerCase();
+            if (random.nextInt(4) > 0) {
+                return target.get("/api/products/search?q=" + encode(keyword) + "&page=" + random.nextInt(3));
+            }
+            return target.get("/api/products/search-advanced?q=" + encode(keyword)
+                    + "&category=" + encode(pick(random, LoadTestData.CATEGORIES)) + "&sortBy=popular");
+        }
+    },
+
+    /** Product detail views, skewed so a few products get most of them. */
+    VIEW("view") {
+        @Override
+        HttpRequest next(Target target, Random random) {
+            long offset = (long) (target.options().products() * Math.pow(random.nextDouble(), 3));
+            return target.get("/api/products/" + (LoadTestData.FIRST_PRODUCT_ID + offset) + "/view");
+        }
+    },
+
+    /** Signed-in users ordering the few hot products at once. */
+    ORDERS("orders") {
+        @Override
+        HttpRequest next(Target target, Random random) {
+            long productId = LoadTestData.FIRST_PRODUCT_ID + random.nextInt(target.options().hotProducts());
+            String body = "{\"productId\":" + productId + ",\"quantity\":" + (1 + random.nextInt(3))
+                    + ",\"customerName\":\"Load Test\"}";
+            return target.post("/api/orders", body, target.tokens().get(random.nextInt(target.tokens().size())));
+        }
+    },
+
+    /** Logins of random users; every one is a BCrypt check. */
+    LOGIN("login") {
+        @Override
+        HttpRequest next(Target target, Random random) {
+            String username = LoadTestData.username(random.nextInt(target.options().users()));
+            return target.post("/api/auth/login",
+                    "{\"username\":\"" + username + "\",\"password\":\"" + LoadTestData.PASSWORD + "\"}", null);
+        }
+    };
+
+    private final String id;
+
+    Scenario(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    abstract HttpRequest next(Target target, Random random);
+
+    static Scenario byName(String name) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.id.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario " + name + ", expected one of "
+                        + Arrays.stream(values()).map(Scenario::id).collect(Collectors.joining(","))));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The application under test, and bearer tokens of signed-in users for the
+     * scenarios that need them.
+     */
+    record Target(URI baseUri, LoadTestOptions options, List<String> tokens) {
+
+        private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+        HttpRequest get(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(TIMEOUT).GET().build();
+        }
+
+        HttpRequest post(String path, String json, String token) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            return request.build();
+        }
+    }
+}
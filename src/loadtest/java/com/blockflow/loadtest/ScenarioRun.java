@@ -0,0 +1,167 @@
+package com.blockflow.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One scenario driven by a fixed number of closed-loop workers: each sends its
+ * next request as soon as the previous response is in. Latencies are kept
+ * exactly, one long per request, so percentiles need no bucketing.
+ */
+final class ScenarioRun {
+
+    // Status recorded for requests that failed without a response
+    private static final int NO_RESPONSE = -1;
+
+    private final Scenario scenario;
+    private final Scenario.Target target;
+    private final HttpClient client;
+
+    ScenarioRun(Scenario scenario, Scenario.Target target, HttpClient client) {
+        this.scenario = scenario;
+        this.target = target;
+        this.client = client;
+    }
+
+    /**
+     * Runs a warmup that is not recorded, then the measured period, and
+     * returns the summary written to the result file.
+     */
+    Map<String, Object> execute() throws InterruptedException {
+        LoadTestOptions options = target.options();
+        if (options.warmupSeconds() > 0) {
+            drive(options.warmupSeconds(), options.seed() ^ 0x5deece66dL);
+        }
+        JvmSample jvmBefore = JvmSample.take();
+        long started = System.nanoTime();
+        List<Samples> samples = drive(options.durationSeconds(), options.seed());
+        long elapsed = System.nanoTime() - started;
+        Map<String, Object> result = summarize(samples, elapsed);
+        result.put("jvm", JvmSample.take().since(jvmBefore, (Integer) result.get("requests")));
+        return result;
+    }
+
+    private List<Samples> drive(int seconds, long seed) throws InterruptedException {
+        int workers = target.options().concurrency();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-" + scenario.id());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<Samples>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Random random = new Random(seed * 31 + scenario.ordinal() * 1000L + i);
+            futures.add(executor.submit(() -> work(random, deadline)));
+        }
+        List<Samples> samples = new ArrayList<>();
+        try {
+            for (Future<Samples> future : futures) {
+                samples.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load test worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return samples;
+    }
+
+    private Samples work(Random random, long deadline) throws InterruptedException {
+        Samples samples = new Samples();
+        while (System.nanoTime() < deadline) {
+            HttpRequest request = scenario.next(target, random);
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = NO_RESPONSE;
+            }
+            samples.add(System.nanoTime() - start, status);
+        }
+        return samples;
+    }
+
+    private Map<String, Object> summarize(List<Samples> samples, long elapsedNanos) {
+        int total = samples.stream().mapToInt(s -> s.size).sum();
+        long[] latencies = new long[total];
+        Map<String, Integer> statuses = new TreeMap<>();
+        int position = 0;
+        int errors = 0;
+        for (Samples worker : samples) {
+            System.arraycopy(worker.latencies, 0, latencies, position, worker.size);
+            position += worker.size;
+            for (int i = 0; i < worker.size; i++) {
+                int status = worker.statuses[i];
+                statuses.merge(status == NO_RESPONSE ? "no_response" : String.valueOf(status), 1, Integer::sum);
+                if (status < 200 || status >= 300) {
+                    errors++;
+                }
+            }
+        }
+        Arrays.sort(latencies);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(percentile(latencies, 50)));
+        latency.put("p95", millis(percentile(latencies, 95)));
+        latency.put("p99", millis(percentile(latencies, 99)));
+        latency.put("max", millis(total > 0 ? latencies[total - 1] : 0));
+        latency.put("mean", millis(total > 0 ? (long) Arrays.stream(latencies).average().orElse(0) : 0));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", total);
+        result.put("errors", errors);
+        result.put("throughputPerSecond", round(total / (elapsedNanos / 1e9)));
+        result.put("latencyMillis", latency);
+        result.put("statusCounts", statuses);
+        return result;
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int[] statuses = new int[1024];
+        private int size;
+
+        private void add(long latencyNanos, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+                statuses = Arrays.copyOf(statuses, size * 2);
+            }
+            latencies[size] = latencyNanos;
+            statuses[size] = status;
+            size++;
+        }
+    }
+}
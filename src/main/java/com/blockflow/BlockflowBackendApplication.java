@@ -6,6 +6,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.blockflow.model.User;
 import com.blockflow.repository.UserRepository;
@@ -14,6 +15,7 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @SpringBootApplication
+@EnableScheduling
 public class BlockflowBackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,68 @@
+package com.blockflow.config;
+
+import com.blockflow.model.Product;
+import com.blockflow.model.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache for Product and User, backed by Caffeine through
+ * JCache.
+ *
+ * Each region is bounded in size and entries expire after a fixed time, so a
+ * write that bypasses Hibernate is never served for longer than the TTL.
+ * StockLedger evicts the products whose stock it writes. ProductViewCounter
+ * does not: a cached view_count may lag, but it is read by no response.
+ * Regions are created here rather than from a Caffeine config file so the
+ * limits live in application.properties with everything else.
+ */
+@Configuration
+@Slf4j
+public class EntityCacheConfig {
+
+    public static final String PRODUCT_REGION = Product.class.getName();
+    public static final String USER_REGION = User.class.getName();
+    public static final String USER_NATURAL_ID_REGION = User.class.getName() + "##NaturalId";
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(
+            @Value("${blockflow.cache.product.max-size:10000}") long productMaxSize,
+            @Value("${blockflow.cache.product.ttl-seconds:600}") long productTtlSeconds,
+            @Value("${blockflow.cache.user.max-size:10000}") long userMaxSize,
+            @Value("${blockflow.cache.user.ttl-seconds:300}") long userTtlSeconds) {
+        return properties -> {
+            CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                    .getCacheManager(URI.create("blockflow-entity-cache"), getClass().getClassLoader());
+            createRegion(cacheManager, PRODUCT_REGION, productMaxSize, productTtlSeconds);
+            createRegion(cacheManager, USER_REGION, userMaxSize, userTtlSeconds);
+            createRegion(cacheManager, USER_NATURAL_ID_REGION, userMaxSize, userTtlSeconds);
+            // Hibernate closes the manager when the session factory shuts down
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maxSize, long ttlSeconds) {
+        // Left over from a previous context in the same class loader, e.g. a
+        // devtools restart; a no-op otherwise
+        cacheManager.destroyCache(region);
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate already stores disassembled, immutable cache entries
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        cacheManager.createCache(region, configuration);
+        log.info("Entity cache region {}: max {} entries, ttl {}s", region, maxSize, ttlSeconds);
+    }
+} // End of class
@@ -0,0 +1,154 @@
+package com.blockflow.config;
+
+import com.blockflow.inventory.StockLedger;
+import com.blockflow.security.ClientRateLimiter;
+import com.blockflow.security.PasswordHasher;
+import com.blockflow.security.TokenPrincipalCache;
+import com.blockflow.service.ProductJsonCache;
+import com.blockflow.service.ProductViewCounter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer wiring: enables @Timed and exports the in-memory buffers and
+ * caches as gauges and counters.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder productViewCounterMetrics(ProductViewCounter viewCounter) {
+        return registry -> {
+            Gauge.builder("blockflow.views.pending", viewCounter, ProductViewCounter::getPendingViews)
+                    .description("Product views buffered but not yet written to the database")
+                    .register(registry);
+            Gauge.builder("blockflow.views.tracked.products", viewCounter, ProductViewCounter::getTrackedProducts)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.views.flushed", viewCounter, ProductViewCounter::getFlushedViews)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.views.flushes", viewCounter, ProductViewCounter::getFlushCount)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.views.flush.failures", viewCounter,
+                    ProductViewCounter::getFailedFlushCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder stockLedgerMetrics(StockLedger stockLedger) {
+        return registry -> {
+            Gauge.builder("blockflow.stock.reservations.active", stockLedger, StockLedger::getActiveReservations)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.stock.reservations.rejected", stockLedger,
+                    StockLedger::getRejectedReservations)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.stock.reservations.expired", stockLedger,
+                    StockLedger::getExpiredReservations)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.stock.reconcile.conflicts", stockLedger,
+                    StockLedger::getReconcileConflicts)
+                    .register(registry);
+            Gauge.builder("blockflow.stock.reconcile.conflicting", stockLedger,
+                    StockLedger::getConflictingProducts)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder tokenCacheMetrics(TokenPrincipalCache tokenCache) {
+        return registry -> {
+            Gauge.builder("blockflow.auth.token.cache.size", tokenCache, TokenPrincipalCache::size)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.auth.token.cache.requests", tokenCache, c -> c.stats().hitCount())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("blockflow.auth.token.cache.requests", tokenCache, c -> c.stats().missCount())
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder rateLimitMetrics(ClientRateLimiter rateLimiter) {
+        return registry -> rateLimiter.getRules().forEach(rule -> FunctionCounter
+                .builder("blockflow.ratelimit.rejected", rule, ClientRateLimiter.Rule::getRejectedCount)
+                .description("Requests rejected with 429 by the per-client rate limiter")
+                .tag("pattern", rule.getPattern())
+                .register(registry));
+    }
+
+    @Bean
+    public MeterBinder productJsonCacheMetrics(ProductJsonCache cache) {
+        return registry -> {
+            Gauge.builder("blockflow.product.json.cache.entries", cache, ProductJsonCache::getEntries)
+                    .register(registry);
+            Gauge.builder("blockflow.product.json.cache.offheap", cache, ProductJsonCache::getOffHeapBytes)
+                    .description("Direct memory allocated for cached product JSON")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("blockflow.product.json.cache.requests", cache, ProductJsonCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("blockflow.product.json.cache.requests", cache, ProductJsonCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("blockflow.product.json.cache.puts", cache, ProductJsonCache::getStoredCount)
+                    .tag("result", "stored")
+                    .register(registry);
+            FunctionCounter.builder("blockflow.product.json.cache.puts", cache, ProductJsonCache::getRejectedCount)
+                    .tag("result", "rejected")
+                    .register(registry);
+            FunctionCounter.builder("blockflow.product.json.cache.slabs.recycled", cache,
+                    ProductJsonCache::getRecycledSlabs)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHasherMetrics(PasswordHasher passwordHasher) {
+        return registry -> {
+            Gauge.builder("blockflow.auth.hash.active", passwordHasher, PasswordHasher::getActiveCount)
+                    .register(registry);
+            Gauge.builder("blockflow.auth.hash.queued", passwordHasher, PasswordHasher::getQueueDepth)
+                    .register(registry);
+            FunctionCounter.builder("blockflow.auth.hash.rejected", passwordHasher, PasswordHasher::getRejectedCount)
+                    .description("Login and registration requests shed with 503")
+                    .register(registry);
+        };
+    }
+
+    // Hit ratio per second-level cache region; hibernate.second.level.cache.*
+    // from Boot's Hibernate metrics carries the raw hit, miss and put counts
+    @Bean
+    public MeterBinder entityCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : new String[] { EntityCacheConfig.PRODUCT_REGION, EntityCacheConfig.USER_REGION,
+                    EntityCacheConfig.USER_NATURAL_ID_REGION }) {
+                Gauge.builder("blockflow.entity.cache.hit.ratio", statistics, s -> hitRatio(s, region))
+                        .tag("region", region)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        long lookups = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / lookups;
+    }
+} // End of class
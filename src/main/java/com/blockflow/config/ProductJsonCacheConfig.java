@@ -0,0 +1,213 @@
+package com.blockflow.config;
+
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.service.ProductJsonCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes every ProductResponse through ProductJsonCache: cached JSON is
+ * copied into the output as is, and JSON produced while a read scope is open
+ * (see WebConfig) is stored for the next response. Applies wherever the
+ * application ObjectMapper writes a ProductResponse, single or inside a page.
+ */
+@Configuration
+@ConditionalOnProperty(name = "blockflow.product-json-cache.enabled", matchIfMissing = true)
+public class ProductJsonCacheConfig {
+
+    @Bean
+    public Module productJsonCacheModule(ProductJsonCache productJsonCache) {
+        SimpleModule module = new SimpleModule("ProductJsonCache");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                    JsonSerializer<?> serializer) {
+                if (beanDesc.getBeanClass() != ProductResponse.class) {
+                    return serializer;
+                }
+                return new CachedProductSerializer((JsonSerializer<Object>) serializer, productJsonCache);
+            }
+        });
+        return module;
+    }
+
+    private static final class CachedProductSerializer extends StdSerializer<ProductResponse>
+            implements ContextualSerializer, ResolvableSerializer {
+
+        private final JsonSerializer<Object> beanSerializer;
+        private final ProductJsonCache cache;
+
+        private CachedProductSerializer(JsonSerializer<Object> beanSerializer, ProductJsonCache cache) {
+            super(ProductResponse.class);
+            this.beanSerializer = beanSerializer;
+            this.cache = cache;
+        }
+
+        // The bean serializer only writes null properties once resolved
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (beanSerializer instanceof ResolvableSerializer resolvable) {
+                resolvable.resolve(provider);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+                throws JsonMappingException {
+            JsonSerializer<?> contextual = provider.handlePrimaryContextualization(beanSerializer, property);
+            return contextual == beanSerializer ? this
+                    : new CachedProductSerializer((JsonSerializer<Object>) contextual, cache);
+        }
+
+        @Override
+        public void serialize(ProductResponse value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            if (value.getId() == null) {
+                beanSerializer.serialize(value, gen, provider);
+                return;
+            }
+            byte[] json = cache.get(value.getId());
+            if (json == null) {
+                long version = cache.currentReadVersion();
+                if (version < 0 || gen.getCodec() == null) {
+                    beanSerializer.serialize(value, gen, provider);
+                    return;
+                }
+                // Serialized on its own first, the same way the response would have it
+                ByteArrayBuilder buffer = new ByteArrayBuilder(512);
+                try (JsonGenerator out = gen.getCodec().getFactory().createGenerator(buffer)) {
+                    provider.getConfig().initialize(out);
+                    beanSerializer.serialize(value, out, provider);
+                }
+                json = buffer.toByteArray();
+                cache.put(value.getId(), version, json);
+            }
+            gen.writeRawValue(new RawJson(json));
+        }
+    }
+
+    /**
+     * Ready-made UTF-8 JSON for JsonGenerator.writeRawValue, which only asks
+     * for the unquoted forms. The quoted ones go through SerializedString.
+     */
+    private static final class RawJson implements SerializableString {
+
+        private final byte[] utf8;
+        // Decoded on first use; the byte output paths never need it
+        private String value;
+
+        private RawJson(byte[] utf8) {
+            this.utf8 = utf8;
+        }
+
+        @Override
+        public String getValue() {
+            if (value == null) {
+                value = new String(utf8, StandardCharsets.UTF_8);
+            }
+            return value;
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + utf8.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+            return utf8.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            String chars = getValue();
+            if (offset + chars.length() > buffer.length) {
+                return -1;
+            }
+            chars.getChars(0, chars.length(), buffer, offset);
+            return chars.length();
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (buffer.remaining() < utf8.length) {
+                return -1;
+            }
+            buffer.put(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return quoted().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return quoted().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return quoted().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return quoted().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return quoted().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) {
+            return quoted().putQuotedUTF8(buffer);
+        }
+
+        private SerializedString quoted() {
+            return new SerializedString(getValue());
+        }
+    }
+} // End of class
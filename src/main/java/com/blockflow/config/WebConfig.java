@@ -0,0 +1,86 @@
+package com.blockflow.config;
+
+import com.blockflow.service.ProductJsonCache;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Open-EntityManager-in-view for every controller except /api/auth.
+ *
+ * Replaces Spring Boot's spring.jpa.open-in-view (turned off in
+ * application.properties). Login and registration finish asynchronously on the
+ * password hashing pool, and an open-in-view EntityManager would hold its JDBC
+ * connection until then, draining the pool under a login storm.
+ *
+ * Product endpoints also run in a ProductJsonCache read scope, opened before
+ * the handler queries anything, so the product JSON they serialize can be
+ * cached.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final String READ_SCOPE_ATTRIBUTE = WebConfig.class.getName() + ".productReadScope";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductJsonCache productJsonCache;
+
+    public WebConfig(EntityManagerFactory entityManagerFactory, ProductJsonCache productJsonCache) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.productJsonCache = productJsonCache;
+    }
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        return interceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns("/api/auth/**");
+        if (productJsonCache.isEnabled()) {
+            registry.addInterceptor(productReadScopeInterceptor())
+                    .addPathPatterns("/api/products/**");
+        }
+    }
+
+    private AsyncHandlerInterceptor productReadScopeInterceptor() {
+        return new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                request.setAttribute(READ_SCOPE_ATTRIBUTE, productJsonCache.openReadScope());
+                return true;
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                    Object handler) {
+                close(request);
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                    Exception ex) {
+                close(request);
+            }
+
+            // The scope is thread-bound; an async handler continues elsewhere
+            private void close(HttpServletRequest request) {
+                Object scope = request.getAttribute(READ_SCOPE_ATTRIBUTE);
+                if (scope != null) {
+                    request.removeAttribute(READ_SCOPE_ATTRIBUTE);
+                    ((ProductJsonCache.ReadScope) scope).close();
+                }
+            }
+        };
+    }
+} // End of class
@@ -1,11 +1,32 @@
 package com.blockflow.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import com.blockflow.dto.BulkUserRequest;
+import com.blockflow.dto.BulkUserResponse;
+import com.blockflow.dto.OrderSummary;
+import com.blockflow.dto.SalesStats;
+import com.blockflow.dto.UserSummary;
 import com.blockflow.model.User;
+import com.blockflow.reporting.SalesRollups;
+import com.blockflow.service.OrderService;
+import com.blockflow.service.ExportService;
 import com.blockflow.service.UserService;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -13,14 +34,44 @@ import java.util.List;
 public class AdminController {
 
     private final UserService userService;
+    private final ExportService exportService;
+    private final OrderService orderService;
+    private final SalesRollups salesRollups;
 
-    public AdminController(UserService userService) {
+    @Value("${blockflow.admin.orders.max-page-size:200}")
+    private int maxOrderPageSize;
+
+    @Value("${blockflow.admin.users.max-page-size:200}")
+    private int maxUserPageSize;
+
+    @Value("${blockflow.admin.users.max-bulk-ids:1000}")
+    private int maxBulkUserIds;
+
+    @Value("${blockflow.admin.stats.max-days:366}")
+    private int maxStatsDays;
+
+    public AdminController(UserService userService, ExportService exportService, OrderService orderService,
+            SalesRollups salesRollups) {
         this.userService = userService;
+        this.exportService = exportService;
+        this.orderService = orderService;
+        this.salesRollups = salesRollups;
     }
 
+    // Paged user listing without password hashes; sortBy is one of id,
+    // username, email, role, enabled, created
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<Page<UserSummary>> getUsers(
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > maxUserPageSize) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + maxUserPageSize);
+        }
+        return ResponseEntity.ok(userService.getUserSummaries(role, enabled, sortBy, direction, page, size));
     }
 
     @GetMapping("/users/{id}")
@@ -30,33 +81,144 @@ public class AdminController {
 
     @PostMapping("/users/{id}/make-admin")
     public ResponseEntity<?> makeUserAdmin(@PathVariable Long id) {
-        User user = userService.getUserById(id);
-        user.setRole(User.Role.ADMIN);
-        userService.saveUser(user);
+        updateOne(id, userService.setRole(List.of(id), User.Role.ADMIN));
         return ResponseEntity.ok("User promoted to admin");
     }
 
     @PostMapping("/users/{id}/remove-admin")
     public ResponseEntity<?> removeUserAdmin(@PathVariable Long id) {
-        User user = userService.getUserById(id);
-        user.setRole(User.Role.USER);
-        userService.saveUser(user);
+        updateOne(id, userService.setRole(List.of(id), User.Role.USER));
         return ResponseEntity.ok("Admin role removed");
     }
 
     @PostMapping("/users/{id}/disable")
     public ResponseEntity<?> disableUser(@PathVariable Long id) {
-        User user = userService.getUserById(id);
-        user.setEnabled(false);
-        userService.saveUser(user);
+        updateOne(id, userService.setEnabled(List.of(id), false));
         return ResponseEntity.ok("User account disabled");
     }
 
     @PostMapping("/users/{id}/enable")
     public ResponseEntity<?> enableUser(@PathVariable Long id) {
-        User user = userService.getUserById(id);
-        user.setEnabled(true);
-        userService.saveUser(user);
+        updateOne(id, userService.setEnabled(List.of(id), true));
         return ResponseEntity.ok("User account enabled");
     }
+
+    // Bulk variants, each a single UPDATE; the caller cannot disable or
+    // demote their own account this way
+    @PostMapping("/users/bulk/make-admin")
+    public ResponseEntity<BulkUserResponse> makeUsersAdmin(@Valid @RequestBody BulkUserRequest request) {
+        List<Long> ids = bulkIds(request, null);
+        return ResponseEntity.ok(new BulkUserResponse(ids.size(), userService.setRole(ids, User.Role.ADMIN)));
+    }
+
+    @PostMapping("/users/bulk/remove-admin")
+    public ResponseEntity<BulkUserResponse> removeUsersAdmin(@Valid @RequestBody BulkUserRequest request,
+            @AuthenticationPrincipal User admin) {
+        List<Long> ids = bulkIds(request, admin);
+        return ResponseEntity.ok(new BulkUserResponse(ids.size(), userService.setRole(ids, User.Role.USER)));
+    }
+
+    @PostMapping("/users/bulk/disable")
+    public ResponseEntity<BulkUserResponse> disableUsers(@Valid @RequestBody BulkUserRequest request,
+            @AuthenticationPrincipal User admin) {
+        List<Long> ids = bulkIds(request, admin);
+        return ResponseEntity.ok(new BulkUserResponse(ids.size(), userService.setEnabled(ids, false)));
+    }
+
+    @PostMapping("/users/bulk/enable")
+    public ResponseEntity<BulkUserResponse> enableUsers(@Valid @RequestBody BulkUserRequest request) {
+        List<Long> ids = bulkIds(request, null);
+        return ResponseEntity.ok(new BulkUserResponse(ids.size(), userService.setEnabled(ids, true)));
+    }
+
+    // Demotes every admin except the listed ones and the caller
+    @PostMapping("/users/bulk/remove-admin-except")
+    public ResponseEntity<BulkUserResponse> removeAdminsExcept(@Valid @RequestBody BulkUserRequest request,
+            @AuthenticationPrincipal User admin) {
+        Set<Long> keep = new HashSet<>(bulkIds(request, null));
+        keep.add(admin.getId());
+        int demoted = userService.demoteAdminsExcept(keep);
+        return ResponseEntity.ok(new BulkUserResponse(demoted, demoted));
+    }
+
+    // A single-user update that changed nothing is either a no-op or an
+    // unknown id; the lookup tells them apart
+    private void updateOne(Long id, int updated) {
+        if (updated == 0) {
+            userService.getUserById(id);
+        }
+    }
+
+    private List<Long> bulkIds(BulkUserRequest request, User self) {
+        List<Long> ids = request.getIds().stream().distinct().toList();
+        if (ids.size() > maxBulkUserIds) {
+            throw new IllegalArgumentException("At most " + maxBulkUserIds + " ids per request");
+        }
+        if (self != null && ids.contains(self.getId())) {
+            throw new IllegalArgumentException("You cannot disable or demote your own account");
+        }
+        return ids;
+    }
+
+    // Paged order listing with the ordering user's name; sortBy is one of
+    // id, date, amount, quantity, status, customer, product, username
+    @GetMapping("/orders")
+    public ResponseEntity<Page<OrderSummary>> getOrders(
+            @RequestParam(defaultValue = "date") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > maxOrderPageSize) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + maxOrderPageSize);
+        }
+        return ResponseEntity.ok(orderService.getOrderSummaries(sortBy, direction, page, size));
+    }
+
+    // Order count, quantity and revenue for a date range (default the last 30
+    // days), read from the sales rollups; groupBy is one of day, product, status
+    @GetMapping("/stats")
+    public ResponseEntity<SalesStats> getStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) String status) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= maxStatsDays) {
+            throw new IllegalArgumentException("from must not be after to, and the range at most " + maxStatsDays
+                    + " days");
+        }
+        return ResponseEntity.ok(salesRollups.stats(start, end, groupBy, productId, status));
+    }
+
+    // Streams all orders (or those placed or changed since a point in time) as
+    // NDJSON or CSV; since= filters on updatedAt, so status and quantity changes
+    // are included, and deletes are listed by /orders/deletions/export
+    @GetMapping("/orders/export")
+    public void exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + exportFormat.getExtension() + "\"");
+        exportService.exportOrders(since, exportFormat, response.getOutputStream());
+    }
+
+    // Ids of orders deleted (since a point in time), for the same sync
+    @GetMapping("/orders/deletions/export")
+    public void exportOrderDeletions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"order-deletions." + exportFormat.getExtension() + "\"");
+        exportService.exportOrderDeletions(since, exportFormat, response.getOutputStream());
+    }
 } // End of class
@@ -3,14 +3,17 @@ package com.blockflow.controller;
 import com.blockflow.dto.AuthResponse;
 import com.blockflow.model.User;
 import com.blockflow.repository.UserRepository;
+import com.blockflow.security.PasswordHasher;
 import com.blockflow.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -23,37 +26,56 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
-    private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    // BCrypt runs on a bounded pool; the request thread is released while it
+    // works and a full pool answers 503 straight away
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    // Spring MVC's async executor; the user is saved there so that hashing
+    // threads are not held up by database I/O
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor requestExecutor;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user) {
         if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Username already exists");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.CONFLICT).body("Username already exists"));
         }
         if (userRepository.findByEmail(user.getEmail()).isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Email already exists");
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.CONFLICT).body("Email already exists"));
         }
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.setRole(User.Role.USER); // Set default role
-        userRepository.save(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully");
+        return passwordHasher.encode(user.getPassword()).thenApplyAsync(hash -> {
+            user.setPassword(hash);
+            user.setRole(User.Role.USER); // Set default role
+            userRepository.save(user);
+            return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully");
+        }, requestExecutor);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User user) {
         Optional<User> existingUser = userRepository.findByUsername(user.getUsername());
-        if (existingUser.isEmpty() || !passwordEncoder.matches(user.getPassword(), existingUser.get().getPassword())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        if (existingUser.isEmpty() || user.getPassword() == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials"));
         }
-        String token = jwtUtil.generateToken(user.getUsername());
         User dbUser = existingUser.get();
-        AuthResponse response = new AuthResponse(
-                token,
-                dbUser.getUsername(),
-                dbUser.getEmail(),
-                dbUser.getFirstName(),
-                dbUser.getLastName(),
-                dbUser.getRole().name());
-        return ResponseEntity.ok(response);
+        return passwordHasher.matches(user.getPassword(), dbUser.getPassword()).thenApply(matches -> {
+            if (!matches) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+            }
+            String token = jwtUtil.generateToken(dbUser.getUsername());
+            AuthResponse response = new AuthResponse(
+                    token,
+                    dbUser.getUsername(),
+                    dbUser.getEmail(),
+                    dbUser.getFirstName(),
+                    dbUser.getLastName(),
+                    dbUser.getRole().name());
+            return ResponseEntity.ok(response);
+        });
     }
 } // End of class
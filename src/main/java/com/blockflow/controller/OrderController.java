@@ -4,6 +4,7 @@ import com.blockflow.model.Order;
 import com.blockflow.model.User;
 import com.blockflow.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,6 +12,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -21,6 +23,9 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Value("${blockflow.orders.batch.max-size:1000}")
+    private int maxBatchSize;
+
     @GetMapping
     public List<Order> getAllOrders() {
         return orderService.getAllOrders();
@@ -39,6 +44,17 @@ public class OrderController {
         return orderService.createOrder(order);
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> createOrders(@RequestBody List<Order> orders, Authentication auth) {
+        if (orders.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("Batch cannot exceed " + maxBatchSize + " orders");
+        }
+        User currentUser = (User) auth.getPrincipal();
+        orders.stream().filter(Objects::nonNull).forEach(order -> order.setUser(currentUser));
+        return ResponseEntity.ok(orderService.createOrders(orders));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order orderDetails,
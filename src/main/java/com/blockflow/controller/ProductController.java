@@ -14,10 +14,26 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.blockflow.service.ProductSearchService;
 import com.blockflow.dto.SearchResponse;
-import com.blockflow.model.Product;
-import com.blockflow.repository.ProductRepository;
 import org.springframework.data.domain.Page;
-import com.blockflow.mapper.ProductMapper;
+import org.springframework.data.domain.Slice;
+import com.blockflow.search.CategoryFacetIndex;
+import com.blockflow.service.CatalogVersion;
+import com.blockflow.service.ProductJsonCache;
+import com.blockflow.service.ExportService;
+import com.blockflow.service.ProductImportService;
+import com.blockflow.dto.ProductImportResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
+import com.blockflow.dto.ProductSuggestion;
+import com.blockflow.dto.DimensionFilter;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/products")
@@ -33,10 +49,22 @@ public class ProductController {
     private ProductSearchService productSearchService;
 
     @Autowired
-    private ProductRepository productRepository;
+    private CategoryFacetIndex categoryFacetIndex;
 
     @Autowired
-    private ProductMapper productMapper;
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductJsonCache productJsonCache;
+
+    @Value("${blockflow.suggest.max-results:20}")
+    private int maxSuggestions;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -47,10 +75,29 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    // Bulk create (or, with upsert=true, update by unique name) from a CSV or
+    // NDJSON request body, in the ProductRequest fields; reports every row.
+    // Form content types are refused: their body would be consumed as parameters
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson", "application/json",
+            "text/plain", "application/octet-stream" })
+    @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean upsert,
+            HttpServletRequest request) throws IOException {
+        ExportService.Format importFormat = ExportService.Format.parse(format);
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), importFormat, upsert));
+    }
+
+    // List endpoints reuse cached product JSON at serialization time only: the
+    // rows are still queried and mapped, see ProductJsonCache
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    public ResponseEntity<List<ProductResponse>> getAllProducts(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         log.info("REST request to get all products");
-        return ResponseEntity.ok(productService.getAllProducts());
+        return revalidated().body(productService.getAllProducts());
     }
 
     // ✅ NEW: Search endpoint
@@ -58,60 +105,74 @@ public class ProductController {
     public ResponseEntity<?> searchProducts(
             @RequestParam(required = false) String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int limit) {
+            @RequestParam(defaultValue = "12") int limit,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
         try {
-            List<Product> products = productSearchService.searchByKeyword(q);
-            int start = page * limit;
-            int end = Math.min(start + limit, products.size());
-            List<Product> paginatedProducts = products.subList(start, end);
-
-            // Convert Product to ProductResponse if needed, but SearchResponse takes
-            // ProductResponse?
-            // Wait, SearchResponse in Step 2 took List<ProductResponse>.
-            // The user's code in Step 4 creates SearchResponse with List<Product>
-            // (paginatedProducts).
-            // My SearchResponse DTO (Step 2) expects List<ProductResponse>.
-            // I need to map Product -> ProductResponse here.
-
-            // Let's check SearchResponse definition again.
-            // I defined it as: private List<ProductResponse> products;
-            // The user's Step 4 code passes `paginatedProducts` which is `List<Product>`.
-            // This will cause a compilation error.
-            // I MUST fix this mapping.
-
-            // I need ProductMapper.
-            // ProductController doesn't have ProductMapper injected.
-            // ProductServiceImpl has it.
-            // I should inject ProductMapper into ProductController.
-
-            // OR I can change SearchResponse to take List<Product> as per user's Step 2
-            // request?
-            // User's Step 2 request:
-            // public class SearchResponse { private List<Product> products; ... }
-            // BUT I implemented it as `List<ProductResponse>` because I thought it was
-            // better practice.
-            // User's Step 2 request explicitly said `private List<Product> products;`.
-            // I deviated from the user's request in Step 2.
-            // I should have followed it or I should now adapt the controller.
-
-            // No, that's a step backward.
-            // I'll check if I can easily inject ProductMapper.
-            // Yes, just add it to fields.
-
+            Slice<ProductResponse> products = productSearchService.searchByKeyword(q, page, limit, includeTotal);
+            long totalItems = -1;
+            int totalPages = -1;
+            if (products instanceof Page<ProductResponse> counted) {
+                totalItems = counted.getTotalElements();
+                totalPages = counted.getTotalPages();
+            }
             return ResponseEntity.ok(new SearchResponse(
-                    paginatedProducts.stream().map(productMapper::toResponse)
-                            .collect(java.util.stream.Collectors.toList()),
-                    page, limit, products.size(), (products.size() + limit - 1) / limit));
+                    products.getContent(),
+                    page, limit, totalItems, totalPages));
 
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Search failed: " + e.getMessage());
         }
     }
 
+    // Typo-tolerant autocomplete over names and categories, e.g. "jumbo acc" or "lintl"
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > maxSuggestions) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSuggestions);
+        }
+        return ResponseEntity.ok(productSearchService.suggest(prefix, limit));
+    }
+
+    // Streams the whole catalog (or rows updated since a point in time) as
+    // NDJSON or CSV for the ERP sync
+    @GetMapping("/export")
+    @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
+    public void exportProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"products." + exportFormat.getExtension() + "\"");
+        exportService.exportProducts(since, exportFormat, response.getOutputStream());
+    }
+
+    // Ids of products deleted (since a point in time), for the same sync
+    @GetMapping("/deletions/export")
+    @org.springframework.security.access.prepost.PreAuthorize("isAuthenticated()")
+    public void exportProductDeletions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"product-deletions." + exportFormat.getExtension() + "\"");
+        exportService.exportProductDeletions(since, exportFormat, response.getOutputStream());
+    }
+
     @GetMapping("/available")
-    public ResponseEntity<List<ProductResponse>> getAvailableProducts() {
+    public ResponseEntity<List<ProductResponse>> getAvailableProducts(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         log.info("REST request to get available products");
-        return ResponseEntity.ok(productService.getAvailableProducts());
+        return revalidated().body(productService.getAvailableProducts());
     }
 
     @DeleteMapping("/{id}")
@@ -129,10 +190,14 @@ public class ProductController {
             @RequestParam(defaultValue = "0") Double minPrice,
             @RequestParam(defaultValue = "1000000") Double maxPrice,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int limit) {
+            @RequestParam(defaultValue = "12") int limit,
+            WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            Page<Product> products = productSearchService.filterByCategory(category, minPrice, maxPrice, page, limit);
-            return ResponseEntity.ok(products.map(productMapper::toResponse));
+            Page<ProductResponse> products = productSearchService.filterByCategory(category, minPrice, maxPrice, page, limit);
+            return revalidated().body(products);
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Filter failed: " + e.getMessage());
         }
@@ -143,29 +208,37 @@ public class ProductController {
     public ResponseEntity<?> sortProducts(
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int limit) {
+            @RequestParam(defaultValue = "12") int limit,
+            WebRequest webRequest) {
+        // View counts are flushed without advancing the catalog version, so the
+        // popular order is always queried rather than answered with a 304
+        if (!"popular".equals(sortBy) && notModified(webRequest)) {
+            return null;
+        }
         try {
-            Page<Product> products = productSearchService.sortProducts(sortBy, page, limit);
-            return ResponseEntity.ok(products.map(productMapper::toResponse));
+            Page<ProductResponse> products = productSearchService.sortProducts(sortBy, page, limit);
+            return revalidated().body(products);
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Sort failed: " + e.getMessage());
         }
     }
 
-    // ✅ NEW: Advanced search (combination of all)
+    // ✅ NEW: Advanced search (combination of all); optional dimension ranges,
+    // e.g. minThickness=100&maxThickness=150 (mm) or maxVolume=12 (litres)
     @GetMapping("/search-advanced")
     public ResponseEntity<?> advancedSearch(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "0") Double minPrice,
             @RequestParam(defaultValue = "1000000") Double maxPrice,
+            DimensionFilter dimensions,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int limit) {
         try {
-            Page<Product> products = productSearchService.advancedSearch(q, category, minPrice, maxPrice, sortBy, page,
-                    limit);
-            return ResponseEntity.ok(products.map(productMapper::toResponse));
+            Page<ProductResponse> products = productSearchService.advancedSearch(q, category, minPrice, maxPrice,
+                    dimensions, sortBy, page, limit);
+            return ResponseEntity.ok(products);
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Advanced search failed: " + e.getMessage());
         }
@@ -173,25 +246,65 @@ public class ProductController {
 
     // ✅ NEW: Track product views
     @GetMapping("/{id}/view")
-    public ResponseEntity<?> viewProduct(@PathVariable Long id) {
+    public ResponseEntity<?> viewProduct(@PathVariable Long id, WebRequest webRequest) {
+        // A cached copy still counts as a view
+        if (productSearchService.isIndexed(id) && notModified(webRequest)) {
+            productSearchService.incrementViewCount(id);
+            return null;
+        }
+        // Cached JSON goes out as bytes, without loading or serializing the product
+        byte[] json = productJsonCache.get(id);
+        if (json != null) {
+            productSearchService.incrementViewCount(id);
+            return revalidated().contentType(MediaType.APPLICATION_JSON).body(json);
+        }
         try {
             com.blockflow.dto.ProductResponse product = productService.getProductById(id); // Service returns
                                                                                            // ProductResponse
             productSearchService.incrementViewCount(id);
-            return ResponseEntity.ok(product);
+            return revalidated().body(product);
         } catch (Exception e) {
             return ResponseEntity.status(404).body("Product not found");
         }
     }
 
-    // ✅ NEW: Get all categories
+    // ✅ NEW: Get all categories (served from the in-memory facet index)
     @GetMapping("/categories/all")
-    public ResponseEntity<?> getAllCategories() {
+    public ResponseEntity<?> getAllCategories(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            List<String> categories = productRepository.getAllCategories();
-            return ResponseEntity.ok(categories);
+            return revalidated().body(categoryFacetIndex.getCategories());
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Failed to fetch categories");
         }
     }
+
+    // Filter sidebar: product count and price histogram per category
+    @GetMapping("/categories/facets")
+    public ResponseEntity<?> getCategoryFacets(WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        try {
+            return revalidated().body(categoryFacetIndex.getFacets());
+        } catch (Exception e) {
+            return ResponseEntity.status(400).body("Failed to fetch category facets");
+        }
+    }
+
+    /**
+     * Conditional GET against the catalog version. On a match the 304 is
+     * already written and the caller returns null without querying; otherwise
+     * the ETag and Last-Modified headers are set on the response.
+     */
+    private boolean notModified(WebRequest webRequest) {
+        return webRequest.checkNotModified(catalogVersion.etag(), catalogVersion.lastModified());
+    }
+
+    // Clients may keep the response but must revalidate it with the ETag
+    private ResponseEntity.BodyBuilder revalidated() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache());
+    }
 }
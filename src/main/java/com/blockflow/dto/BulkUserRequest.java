@@ -0,0 +1,21 @@
+package com.blockflow.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * User ids for the bulk admin operations: the users to change, or for
+ * remove-admin-except the admins to keep.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserRequest {
+
+    @NotNull(message = "ids are required")
+    private List<@NotNull Long> ids;
+} // End of class
@@ -0,0 +1,17 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk admin operation. updated counts only the users whose
+ * role or enabled flag actually changed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserResponse {
+    private int requested;
+    private int updated;
+} // End of class
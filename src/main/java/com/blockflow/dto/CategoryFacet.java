@@ -0,0 +1,23 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One entry of the product filter sidebar: a category with its product count
+ * and price histogram.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacet {
+    private String category;
+    private long productCount;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private List<PriceBucket> priceBuckets;
+} // End of class
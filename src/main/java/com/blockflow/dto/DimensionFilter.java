@@ -0,0 +1,58 @@
+package com.blockflow.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Optional dimension ranges for /api/products/search-advanced, bound from the
+ * query string. Lengths are in mm, volumes in litres; bounds are inclusive and
+ * null means unbounded.
+ */
+@Data
+@NoArgsConstructor
+public class DimensionFilter {
+
+    private static final long MM3_PER_LITRE = 1_000_000L;
+
+    private Integer minLength;
+    private Integer maxLength;
+    private Integer minHeight;
+    private Integer maxHeight;
+    private Integer minThickness;
+    private Integer maxThickness;
+    private Double minVolume;
+    private Double maxVolume;
+
+    public boolean isEmpty() {
+        return minLength == null && maxLength == null && minHeight == null && maxHeight == null
+                && minThickness == null && maxThickness == null && minVolume == null && maxVolume == null;
+    }
+
+    public Long getMinVolumeMm3() {
+        return minVolume != null ? (long) Math.ceil(minVolume * MM3_PER_LITRE) : null;
+    }
+
+    public Long getMaxVolumeMm3() {
+        return maxVolume != null ? (long) Math.floor(maxVolume * MM3_PER_LITRE) : null;
+    }
+
+    /**
+     * Same test as the database query, for products already in memory. A
+     * product without parsed dimensions never matches a non-empty filter.
+     */
+    public boolean matches(Integer lengthMm, Integer heightMm, Integer thicknessMm, Long volumeMm3) {
+        return within(lengthMm, minLength, maxLength)
+                && within(heightMm, minHeight, maxHeight)
+                && within(thicknessMm, minThickness, maxThickness)
+                && within(volumeMm3, getMinVolumeMm3(), getMaxVolumeMm3());
+    }
+
+    private static <T extends Comparable<T>> boolean within(T value, T min, T max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null
+                && (min == null || value.compareTo(min) >= 0)
+                && (max == null || value.compareTo(max) <= 0);
+    }
+} // End of class
@@ -0,0 +1,21 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of POST /api/orders/batch, with one entry per request line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchResponse {
+    private int created;
+    private int rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<OrderLineResult> results;
+} // End of class
@@ -0,0 +1,35 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of one line of a batch order request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLineResult {
+
+    public enum Status {
+        CREATED, REJECTED
+    }
+
+    // Position of the line in the request
+    private int index;
+    private Status status;
+    private Long orderId;
+    private BigDecimal totalAmount;
+    private String message;
+
+    public static OrderLineResult created(int index, Long orderId, BigDecimal totalAmount) {
+        return new OrderLineResult(index, Status.CREATED, orderId, totalAmount, null);
+    }
+
+    public static OrderLineResult rejected(int index, String message) {
+        return new OrderLineResult(index, Status.REJECTED, null, null, message);
+    }
+} // End of class
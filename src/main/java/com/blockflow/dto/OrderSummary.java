@@ -0,0 +1,27 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Row of the admin order listing. Filled directly by a JPQL constructor
+ * expression, so no Order or User entity is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private LocalDateTime orderDate;
+    private Long productId;
+    private Integer quantity;
+    private BigDecimal totalAmount;
+    private String customerName;
+    private String status;
+    private Long userId;
+    private String username;
+} // End of class
@@ -0,0 +1,19 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Number of products priced in [from, to). The last bucket has no upper bound.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucket {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+} // End of class
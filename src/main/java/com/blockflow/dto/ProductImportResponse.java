@@ -0,0 +1,22 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of POST /api/products/import, with one entry per row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private int created;
+    private int updated;
+    private int rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<ProductImportResult> results;
+} // End of class
@@ -0,0 +1,32 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one row of a product import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResult {
+
+    public enum Status {
+        CREATED, UPDATED, REJECTED
+    }
+
+    // 1-based position of the row in the upload, not counting the CSV header
+    private long row;
+    private Status status;
+    private Long productId;
+    private String message;
+
+    public static ProductImportResult saved(long row, Status status, Long productId) {
+        return new ProductImportResult(row, status, productId, null);
+    }
+
+    public static ProductImportResult rejected(long row, String message) {
+        return new ProductImportResult(row, Status.REJECTED, null, message);
+    }
+} // End of class
@@ -19,6 +19,9 @@ public class ProductResponse {
     private Long id;
     private String name;
     private String dimensions;
+    private Integer lengthMm;
+    private Integer heightMm;
+    private Integer thicknessMm;
     private BigDecimal pricePerUnit;
     private Integer stockQuantity;
     private String description;
@@ -0,0 +1,20 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One autocomplete hit: enough to show the product in a dropdown and link to it.
+ * edits is how many typos the query needed to match (0 for a clean prefix).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+    private Long id;
+    private String name;
+    private String category;
+    private long viewCount;
+    private int edits;
+} // End of class
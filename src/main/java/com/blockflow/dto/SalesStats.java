@@ -0,0 +1,26 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Result of GET /api/admin/stats: order totals for a date range, overall and
+ * per day, product or status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesStats {
+    private LocalDate from;
+    private LocalDate to;
+    private String groupBy;
+    private long orderCount;
+    private long quantity;
+    private BigDecimal revenue;
+    private List<SalesStatsRow> rows;
+} // End of class
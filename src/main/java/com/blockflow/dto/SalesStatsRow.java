@@ -0,0 +1,20 @@
+package com.blockflow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One group of SalesStats; key is the day (ISO date), product id or status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesStatsRow {
+    private String key;
+    private long orderCount;
+    private long quantity;
+    private BigDecimal revenue;
+} // End of class
@@ -10,6 +10,7 @@ public class SearchResponse {
     private List<ProductResponse> products;
     private int currentPage;
     private int itemsPerPage;
+    // Both are -1 when the client asked to skip the total count.
     private long totalItems;
     private int totalPages;
 
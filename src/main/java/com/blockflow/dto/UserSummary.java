@@ -0,0 +1,26 @@
+package com.blockflow.dto;
+
+import com.blockflow.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the admin user listing. Filled directly by a JPQL constructor
+ * expression, so no User entity (and no password hash) is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private User.Role role;
+    private Boolean enabled;
+    private LocalDateTime createdAt;
+} // End of class
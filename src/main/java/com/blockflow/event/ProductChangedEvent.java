@@ -0,0 +1,35 @@
+package com.blockflow.event;
+
+import com.blockflow.model.Product;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by ProductServiceImpl whenever a product is created, updated or deleted.
+ * In-memory read structures listen for it after the transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+
+    private final Long productId;
+
+    /**
+     * The saved product, or null when the product was deleted.
+     */
+    private final Product product;
+
+    public static ProductChangedEvent saved(Type type, Product product) {
+        return new ProductChangedEvent(type, product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null);
+    }
+} // End of class
@@ -1,6 +1,7 @@
 package com.blockflow.filter;
 
-import com.blockflow.util.JwtUtil;
+import com.blockflow.model.User;
+import com.blockflow.security.TokenPrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,10 +19,7 @@ import java.io.IOException;
 public class JwtFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private com.blockflow.repository.UserRepository userRepository;
+    private TokenPrincipalCache tokenPrincipalCache;
 
     @Override
     protected void doFilterInternal(@org.springframework.lang.NonNull HttpServletRequest request,
@@ -29,18 +27,12 @@ public class JwtFilter extends OncePerRequestFilter {
             @org.springframework.lang.NonNull FilterChain filterChain)
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            if (jwtUtil.validateToken(token)) {
-                username = jwtUtil.extractUsername(token);
-            }
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            com.blockflow.model.User user = userRepository.findByUsername(username).orElse(null);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String token = authHeader.substring(7);
+            // Verifies the token and loads the user only on a cache miss
+            User user = tokenPrincipalCache.resolve(token);
 
             if (user != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -0,0 +1,85 @@
+package com.blockflow.filter;
+
+import com.blockflow.model.User;
+import com.blockflow.security.ClientRateLimiter;
+import com.blockflow.security.TokenPrincipalCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits GET requests to the endpoints configured for ClientRateLimiter,
+ * per JWT subject or, for anonymous callers and invalid tokens, per remote
+ * address. Rejected requests get 429 with Retry-After and never reach a
+ * controller or the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final ClientRateLimiter rateLimiter;
+    private final TokenPrincipalCache tokenPrincipalCache;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || rateLimiter.getRules().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        ClientRateLimiter.Rule rule = rateLimiter.ruleFor(path);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = rateLimiter.acquire(rule, clientKey(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long second = TimeUnit.SECONDS.toNanos(1);
+        long retryAfterSeconds = Math.max(1, (waitNanos + second - 1) / second);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+        body.put("message", "Rate limit of " + rule.getPerSecond() + " requests per second exceeded");
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    // Same token cache as JwtFilter, so a signed-in client costs no extra
+    // verification; behind a proxy set server.forward-headers-strategy so the
+    // remote address is the client's
+    private String clientKey(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            User user = tokenPrincipalCache.resolve(authHeader.substring(7));
+            if (user != null) {
+                return "user:" + user.getUsername();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+} // End of class
@@ -0,0 +1,374 @@
+package com.blockflow.inventory;
+
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.exception.InsufficientStockException;
+import com.blockflow.exception.ResourceNotFoundException;
+import com.blockflow.model.Product;
+import com.blockflow.service.CatalogVersion;
+import com.blockflow.service.ProductJsonCache;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory stock ledger used to admit orders without locking product rows.
+ *
+ * Each product gets an atomic record of its available, held and unreconciled
+ * units, seeded from the database on first use. Their sum always equals the
+ * database stock. Orders reserve units with a compare-and-set loop, so the
+ * available count can never go below zero and orders for different products
+ * never contend. Confirmed reservations are written back in batches with a
+ * conditional UPDATE that refuses to take stock_quantity below zero.
+ */
+@Component
+@Slf4j
+public class StockLedger {
+
+    private static final String SELECT_STOCK_SQL = "SELECT stock_quantity FROM products WHERE id = ?";
+    // Also bumps updated_at, which the incremental export filters on
+    private static final String DECREMENT_SQL = "UPDATE products SET stock_quantity = stock_quantity - ?, "
+            + "updated_at = ? WHERE id = ? AND stock_quantity >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogVersion catalogVersion;
+    private final ProductJsonCache productJsonCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final long reservationTtlMillis;
+
+    private final Map<Long, ProductStock> stocks = new ConcurrentHashMap<>();
+    private final Map<String, StockReservation> reservations = new ConcurrentHashMap<>();
+    // Held by write-backs and resyncs, which both read or write the database
+    // stock and must not interleave
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    // Products whose pending decrement the database refused
+    private final Map<Long, Integer> conflicts = new ConcurrentHashMap<>();
+
+    private final AtomicLong rejectedReservations = new AtomicLong();
+    private final AtomicLong expiredReservations = new AtomicLong();
+    private final AtomicLong reconcileConflicts = new AtomicLong();
+
+    public StockLedger(JdbcTemplate jdbcTemplate, CatalogVersion catalogVersion,
+            ProductJsonCache productJsonCache, EntityManagerFactory entityManagerFactory,
+            @Value("${blockflow.stock.reservation-ttl-ms:30000}") long reservationTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogVersion = catalogVersion;
+        this.productJsonCache = productJsonCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.reservationTtlMillis = reservationTtlMillis;
+    }
+
+    /**
+     * Takes units out of the available count and holds them until the
+     * reservation is confirmed, released or expires.
+     */
+    public StockReservation reserve(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        ProductStock stock = stockOf(productId);
+        Levels current;
+        do {
+            current = stock.levels.get();
+            if (current.available < quantity) {
+                rejectedReservations.incrementAndGet();
+                throw new InsufficientStockException("Insufficient stock for product " + productId
+                        + ": requested " + quantity + ", available " + Math.max(current.available, 0));
+            }
+        } while (!stock.levels.compareAndSet(current,
+                new Levels(current.available - quantity, current.held + quantity, current.unreconciled)));
+
+        StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), productId, quantity,
+                System.currentTimeMillis() + reservationTtlMillis);
+        reservations.put(reservation.getId(), reservation);
+        return reservation;
+    }
+
+    /**
+     * Reserves stock for the current transaction: the reservation is confirmed
+     * if the transaction commits and released if it rolls back.
+     */
+    public StockReservation reserveForCurrentTransaction(Long productId, int quantity) {
+        StockReservation reservation = reserve(productId, quantity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirm(reservation);
+            return reservation;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    confirm(reservation);
+                } else {
+                    release(reservation);
+                }
+            }
+        });
+        return reservation;
+    }
+
+    /**
+     * Turns a reservation into a pending database decrement.
+     */
+    public void confirm(StockReservation reservation) {
+        ProductStock stock = stockOf(reservation.getProductId());
+        int quantity = reservation.getQuantity();
+        if (reservations.remove(reservation.getId()) != null) {
+            stock.update(l -> new Levels(l.available, l.held - quantity, l.unreconciled + quantity));
+        } else {
+            // Expired before the order committed; the units were already handed
+            // back, so take them again. The conditional UPDATE still keeps the
+            // database from going negative.
+            stock.update(l -> new Levels(l.available - quantity, l.held, l.unreconciled + quantity));
+            log.warn("Confirmed expired stock reservation {} for product {}", reservation.getId(),
+                    reservation.getProductId());
+        }
+    }
+
+    public void release(StockReservation reservation) {
+        if (reservations.remove(reservation.getId()) != null) {
+            int quantity = reservation.getQuantity();
+            stockOf(reservation.getProductId())
+                    .update(l -> new Levels(l.available + quantity, l.held - quantity, l.unreconciled));
+        }
+    }
+
+    /**
+     * Returns units to stock, e.g. when an order's quantity is reduced.
+     */
+    public void restock(Long productId, int quantity) {
+        stockOf(productId).update(l -> new Levels(l.available + quantity, l.held, l.unreconciled - quantity));
+    }
+
+    @Scheduled(fixedDelayString = "${blockflow.stock.expiry-check-interval-ms:5000}")
+    public void releaseExpired() {
+        long now = System.currentTimeMillis();
+        for (StockReservation reservation : reservations.values()) {
+            if (reservation.isExpired(now)) {
+                release(reservation);
+                expiredReservations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Writes confirmed decrements to the database as one JDBC batch.
+     */
+    @Scheduled(fixedDelayString = "${blockflow.stock.reconcile-interval-ms:1000}")
+    public void reconcile() {
+        // Not synchronized: the batch runs JDBC, which would pin the carrier
+        // when running on a virtual thread
+        reconcileLock.lock();
+        try {
+            doReconcile();
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void doReconcile() {
+        List<Long> productIds = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Long, ProductStock> entry : stocks.entrySet()) {
+            int delta = entry.getValue().takeUnreconciled();
+            if (delta != 0) {
+                productIds.add(entry.getKey());
+                batch.add(new Object[] { delta, now, entry.getKey(), delta });
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int[] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, batch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile stock for {} products, will retry: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                restoreUnreconciled(productIds.get(i), (Integer) batch.get(i)[0]);
+            }
+            return;
+        }
+        // stock_quantity is part of the catalog responses, the cached Product
+        // entities and the cached product JSON, all of which this UPDATE bypasses
+        catalogVersion.advance();
+        for (Long productId : productIds) {
+            entityManagerFactory.getCache().evict(Product.class, productId);
+            productJsonCache.invalidate(productId);
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            Long productId = productIds.get(i);
+            int delta = (Integer) batch.get(i)[0];
+            if (counts[i] == 0) {
+                // The row was lowered outside the ledger below what committed
+                // orders took. Those units are sold, so keep the decrement
+                // pending until the stock is raised again; meanwhile the
+                // product stays unavailable.
+                restoreUnreconciled(productId, delta);
+                if (conflicts.put(productId, delta) == null) {
+                    reconcileConflicts.incrementAndGet();
+                    log.error("Stock reconciliation conflict for product {}: database stock is below the "
+                            + "{} units sold since the last write-back; keeping them pending", productId, delta);
+                }
+                resync(productId);
+            } else if (conflicts.remove(productId) != null) {
+                log.info("Stock reconciliation conflict for product {} resolved", productId);
+            }
+        }
+    }
+
+    private void restoreUnreconciled(Long productId, int delta) {
+        ProductStock stock = stocks.get(productId);
+        if (stock != null) {
+            stock.update(l -> new Levels(l.available, l.held, l.unreconciled + delta));
+        }
+    }
+
+    @PreDestroy
+    public void reconcileOnShutdown() {
+        reconcile();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            stocks.remove(event.getProductId());
+            conflicts.remove(event.getProductId());
+        } else if (event.getType() == ProductChangedEvent.Type.UPDATED) {
+            resync(event.getProductId());
+        }
+    }
+
+    /**
+     * Reseeds a product's counter from the database, keeping units that are
+     * held or confirmed but not yet written back. Runs under the reconcile
+     * lock, so a write-back can never be between taking its deltas and
+     * applying them while the database stock is read.
+     */
+    public void resync(Long productId) {
+        if (!stocks.containsKey(productId)) {
+            return;
+        }
+        reconcileLock.lock();
+        try {
+            ProductStock stock = stocks.get(productId);
+            if (stock == null) {
+                return;
+            }
+            int dbStock = loadStock(productId);
+            stock.update(l -> new Levels(dbStock - l.held - l.unreconciled, l.held, l.unreconciled));
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    public int getAvailable(Long productId) {
+        return Math.max(stockOf(productId).levels.get().available, 0);
+    }
+
+    public int getActiveReservations() {
+        return reservations.size();
+    }
+
+    public long getRejectedReservations() {
+        return rejectedReservations.get();
+    }
+
+    public long getExpiredReservations() {
+        return expiredReservations.get();
+    }
+
+    public long getReconcileConflicts() {
+        return reconcileConflicts.get();
+    }
+
+    /**
+     * Products whose sold units could not be written back yet.
+     */
+    public int getConflictingProducts() {
+        return conflicts.size();
+    }
+
+    // Current counts of a product the ledger tracks, or null
+    Levels levelsOf(Long productId) {
+        ProductStock stock = stocks.get(productId);
+        return stock != null ? stock.levels.get() : null;
+    }
+
+    private ProductStock stockOf(Long productId) {
+        ProductStock stock = stocks.get(productId);
+        if (stock != null) {
+            return stock;
+        }
+        // Loaded outside the map: computeIfAbsent would run the query while
+        // holding the bin lock, blocking other products and pinning virtual
+        // threads. A racing loader may win; both read the same row.
+        ProductStock loaded = new ProductStock(loadStock(productId));
+        stock = stocks.putIfAbsent(productId, loaded);
+        return stock != null ? stock : loaded;
+    }
+
+    private int loadStock(Long productId) {
+        try {
+            Integer stock = jdbcTemplate.queryForObject(SELECT_STOCK_SQL, Integer.class, productId);
+            return stock != null ? stock : 0;
+        } catch (EmptyResultDataAccessException e) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+    }
+
+    private static final class ProductStock {
+        // Replaced as a whole, so units move between the three counts in
+        // one step and are never seen in both or neither
+        private final AtomicReference<Levels> levels;
+
+        private ProductStock(int available) {
+            this.levels = new AtomicReference<>(new Levels(available, 0, 0));
+        }
+
+        private void update(UnaryOperator<Levels> change) {
+            Levels current;
+            do {
+                current = levels.get();
+            } while (!levels.compareAndSet(current, change.apply(current)));
+        }
+
+        private int takeUnreconciled() {
+            Levels current;
+            do {
+                current = levels.get();
+            } while (!levels.compareAndSet(current, new Levels(current.available, current.held, 0)));
+            return current.unreconciled;
+        }
+    }
+
+    /**
+     * @param available    units that can still be reserved
+     * @param held         units reserved by orders that have not committed yet
+     * @param unreconciled units sold but not yet subtracted in the database
+     */
+    record Levels(int available, int held, int unreconciled) {
+    }
+} // End of class
@@ -0,0 +1,21 @@
+package com.blockflow.inventory;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stock held for an order that has not been committed yet.
+ */
+@Getter
+@RequiredArgsConstructor
+public class StockReservation {
+
+    private final String id;
+    private final Long productId;
+    private final int quantity;
+    private final long expiresAtMillis;
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+} // End of class
@@ -29,6 +29,9 @@ public class ProductMapper {
                 .id(product.getId())
                 .name(product.getName())
                 .dimensions(product.getDimensions())
+                .lengthMm(product.getLengthMm())
+                .heightMm(product.getHeightMm())
+                .thicknessMm(product.getThicknessMm())
                 .pricePerUnit(product.getPricePerUnit())
                 .stockQuantity(product.getStockQuantity())
                 .description(product.getDescription())
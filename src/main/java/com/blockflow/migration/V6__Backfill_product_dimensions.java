@@ -0,0 +1,65 @@
+package com.blockflow.migration;
+
+import com.blockflow.model.BlockDimensions;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills the numeric dimension columns added in V5 for existing products, with
+ * the same parser Product uses on save. Rows are read in id order, a page at a
+ * time, and updated in JDBC batches.
+ */
+@Slf4j
+public class V6__Backfill_product_dimensions extends BaseJavaMigration {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private static final String SELECT_PAGE_SQL = "SELECT id, dimensions FROM products "
+            + "WHERE id > ? AND dimensions IS NOT NULL ORDER BY id LIMIT " + PAGE_SIZE;
+    private static final String UPDATE_SQL = "UPDATE products SET length_mm = ?, height_mm = ?, thickness_mm = ?, "
+            + "volume_mm3 = ? WHERE id = ?";
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        long lastId = Long.MIN_VALUE;
+        int parsed = 0;
+        int unparsed = 0;
+        try (PreparedStatement select = connection.prepareStatement(SELECT_PAGE_SQL);
+                PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
+            while (true) {
+                select.setLong(1, lastId);
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong(1);
+                        BlockDimensions dimensions = BlockDimensions.parse(rs.getString(2));
+                        if (dimensions == null) {
+                            unparsed++;
+                            continue;
+                        }
+                        update.setInt(1, dimensions.getLengthMm());
+                        update.setInt(2, dimensions.getHeightMm());
+                        update.setInt(3, dimensions.getThicknessMm());
+                        update.setLong(4, dimensions.getVolumeMm3());
+                        update.setLong(5, lastId);
+                        update.addBatch();
+                        parsed++;
+                    }
+                }
+                update.executeBatch();
+                if (rows < PAGE_SIZE) {
+                    break;
+                }
+            }
+        }
+        log.info("Backfilled dimensions of {} products, {} left empty (unparseable)", parsed, unparsed);
+    }
+} // End of class
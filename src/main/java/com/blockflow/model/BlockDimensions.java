@@ -0,0 +1,69 @@
+package com.blockflow.model;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Length, height and thickness in whole millimetres, parsed from the free-text
+ * Product.dimensions such as "600x200x100mm", "60 x 20 x 10 cm" or
+ * "0.6×0.2×0.1m". A value without a unit is taken as millimetres.
+ */
+@Value
+public class BlockDimensions {
+
+    private static final Pattern DIMENSIONS = Pattern.compile(
+            "\\s*(\\d+(?:[.,]\\d+)?)\\s*[x×*]\\s*(\\d+(?:[.,]\\d+)?)\\s*[x×*]\\s*(\\d+(?:[.,]\\d+)?)\\s*(mm|cm|m)?\\s*");
+
+    int lengthMm;
+    int heightMm;
+    int thicknessMm;
+
+    public long getVolumeMm3() {
+        return (long) lengthMm * heightMm * thicknessMm;
+    }
+
+    /**
+     * Returns null when the text is not three numbers separated by "x", or a
+     * side rounds to zero millimetres.
+     */
+    public static BlockDimensions parse(String dimensions) {
+        if (dimensions == null) {
+            return null;
+        }
+        Matcher matcher = DIMENSIONS.matcher(dimensions.toLowerCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            return null;
+        }
+        int scale = unitScale(matcher.group(4));
+        int length = toMillimetres(matcher.group(1), scale);
+        int height = toMillimetres(matcher.group(2), scale);
+        int thickness = toMillimetres(matcher.group(3), scale);
+        if (length <= 0 || height <= 0 || thickness <= 0) {
+            return null;
+        }
+        return new BlockDimensions(length, height, thickness);
+    }
+
+    private static int unitScale(String unit) {
+        if ("m".equals(unit)) {
+            return 1000;
+        }
+        return "cm".equals(unit) ? 10 : 1;
+    }
+
+    private static int toMillimetres(String number, int scale) {
+        try {
+            return new BigDecimal(number.replace(',', '.'))
+                    .multiply(BigDecimal.valueOf(scale))
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .intValueExact();
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+    }
+} // End of class
@@ -20,8 +20,10 @@ import java.time.LocalDateTime;
 @Builder
 public class Order {
 
+    // Pooled sequence rather than IDENTITY so inserts can be JDBC batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -46,6 +48,9 @@ public class Order {
     @JoinColumn(name = "user_id")
     private User user;
 
+    // Read by the incremental export
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         if (orderDate == null) {
@@ -54,5 +59,11 @@ public class Order {
         if (status == null) {
             status = "NEW";
         }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 } // End of class
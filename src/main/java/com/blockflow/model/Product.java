@@ -12,9 +12,15 @@ import java.time.LocalDateTime;
 /**
  * Entity representing a Product in the BlockFlow system.
  * Maps to the "products" table in the database.
+ * Updates only write changed columns, so editing a product does not overwrite
+ * stock decrements applied concurrently by the StockLedger.
+ * Cached in the second-level cache (see EntityCacheConfig); the JDBC writers
+ * evict the rows they change.
  */
 @Entity
 @Table(name = "products")
+@org.hibernate.annotations.DynamicUpdate
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,10 +29,11 @@ public class Product {
 
     /**
      * Unique identifier for the product.
-     * Auto-generated by the database.
+     * Allocated from a pooled sequence so inserts can be JDBC batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -44,6 +51,19 @@ public class Product {
     @NotBlank(message = "Dimensions are required")
     private String dimensions;
 
+    /**
+     * Length, height and thickness in mm and the volume in mm³, parsed from
+     * dimensions on every save for range searches; null when dimensions cannot
+     * be parsed (see BlockDimensions).
+     */
+    private Integer lengthMm;
+
+    private Integer heightMm;
+
+    private Integer thicknessMm;
+
+    private Long volumeMm3;
+
     /**
      * Price per unit of the product.
      * Must be positive and have 2 decimal places.
@@ -86,9 +106,10 @@ public class Product {
 
     /**
      * Number of times the product has been viewed.
+     * Only written by ProductViewCounter's relative updates, never by entity saves.
      */
     @Builder.Default
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Long viewCount = 0L;
 
     /**
@@ -111,14 +132,29 @@ public class Product {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        applyDimensions();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        applyDimensions();
+    }
+
+    private void applyDimensions() {
+        BlockDimensions parsed = BlockDimensions.parse(dimensions);
+        lengthMm = parsed != null ? parsed.getLengthMm() : null;
+        heightMm = parsed != null ? parsed.getHeightMm() : null;
+        thicknessMm = parsed != null ? parsed.getThicknessMm() : null;
+        volumeMm3 = parsed != null ? parsed.getVolumeMm3() : null;
     }
 
-    @ManyToOne
+    // Lazy: no product read needs the owner, and eager fetching joined users
+    // (with their password hashes) into every product load. Left out of
+    // toString/equals so they never initialize the proxy.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @lombok.ToString.Exclude
+    @lombok.EqualsAndHashCode.Exclude
     private User user;
 }
@@ -0,0 +1,170 @@
+package com.blockflow.reporting;
+
+import com.blockflow.dto.SalesStats;
+import com.blockflow.dto.SalesStatsRow;
+import com.blockflow.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per day, product and status order totals in the sales_rollups table.
+ *
+ * OrderServiceImpl reports every order it creates, changes or deletes, inside
+ * its own transaction, so the rollups commit or roll back together with the
+ * orders. Changes are applied as relative updates in key order, which keeps
+ * concurrent transactions from deadlocking on each other's rows. Reports then
+ * read a few hundred rollup rows instead of scanning orders.
+ */
+@Component
+@Slf4j
+public class SalesRollups {
+
+    private static final String UPDATE_SQL = "UPDATE sales_rollups SET order_count = order_count + ?, "
+            + "quantity = quantity + ?, revenue = revenue + ? WHERE sales_date = ? AND product_id = ? AND status = ?";
+    private static final String INSERT_SQL = "INSERT INTO sales_rollups "
+            + "(sales_date, product_id, status, order_count, quantity, revenue) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM sales_rollups "
+            + "WHERE sales_date = ? AND product_id = ? AND status = ? AND order_count = 0";
+
+    // groupBy value -> rollup column
+    private static final Map<String, String> GROUP_COLUMNS = Map.of(
+            "day", "sales_date",
+            "product", "product_id",
+            "status", "status");
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::day)
+            .thenComparing(Key::productId)
+            .thenComparing(Key::status);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalesRollups(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void ordersPlaced(Collection<Order> orders) {
+        Map<Key, Totals> changes = new TreeMap<>(KEY_ORDER);
+        orders.forEach(order -> add(changes, order, 1));
+        apply(changes);
+    }
+
+    /**
+     * Moves an order's contribution from its previously stored values to its
+     * current ones; previous is null for a new order.
+     */
+    public void orderChanged(Order previous, Order current) {
+        Map<Key, Totals> changes = new TreeMap<>(KEY_ORDER);
+        if (previous != null) {
+            add(changes, previous, -1);
+        }
+        add(changes, current, 1);
+        apply(changes);
+    }
+
+    public void orderRemoved(Order previous) {
+        Map<Key, Totals> changes = new TreeMap<>(KEY_ORDER);
+        add(changes, previous, -1);
+        apply(changes);
+    }
+
+    /**
+     * Totals for orders placed between from and to (inclusive), with one row
+     * per day, product or status.
+     */
+    public SalesStats stats(LocalDate from, LocalDate to, String groupBy, Long productId, String status) {
+        String column = GROUP_COLUMNS.get(groupBy);
+        if (column == null) {
+            throw new IllegalArgumentException("Unsupported groupBy: " + groupBy + ", expected one of "
+                    + GROUP_COLUMNS.keySet().stream().sorted().toList());
+        }
+        StringBuilder sql = new StringBuilder("SELECT ").append(column)
+                .append(", SUM(order_count), SUM(quantity), SUM(revenue) FROM sales_rollups")
+                .append(" WHERE sales_date BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (productId != null) {
+            sql.append(" AND product_id = ?");
+            args.add(productId);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status);
+        }
+        sql.append(" GROUP BY ").append(column).append(" ORDER BY ").append(column);
+
+        List<SalesStatsRow> rows = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new SalesStatsRow(
+                rs.getObject(1) instanceof Date date ? date.toLocalDate().toString() : rs.getString(1),
+                rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4)), args.toArray());
+
+        long orderCount = 0;
+        long quantity = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (SalesStatsRow row : rows) {
+            orderCount += row.getOrderCount();
+            quantity += row.getQuantity();
+            revenue = revenue.add(row.getRevenue());
+        }
+        return new SalesStats(from, to, groupBy, orderCount, quantity, revenue, rows);
+    }
+
+    private static void add(Map<Key, Totals> changes, Order order, int sign) {
+        Key key = new Key(order.getOrderDate().toLocalDate(), order.getProductId(), order.getStatus());
+        Totals totals = changes.computeIfAbsent(key, k -> new Totals());
+        totals.orders += sign;
+        totals.quantity += (long) sign * order.getQuantity();
+        if (order.getTotalAmount() != null) {
+            totals.revenue = totals.revenue.add(sign > 0 ? order.getTotalAmount() : order.getTotalAmount().negate());
+        }
+    }
+
+    private void apply(Map<Key, Totals> changes) {
+        changes.forEach((key, totals) -> {
+            if (totals.orders == 0 && totals.quantity == 0 && totals.revenue.signum() == 0) {
+                return;
+            }
+            Date day = Date.valueOf(key.day());
+            if (update(key, day, totals) == 0) {
+                if (totals.orders <= 0) {
+                    // Only possible if the table was edited by hand
+                    log.warn("No sales rollup row for {} to subtract {} orders from", key, -totals.orders);
+                    return;
+                }
+                try {
+                    jdbcTemplate.update(INSERT_SQL, day, key.productId(), key.status(), totals.orders,
+                            totals.quantity, totals.revenue);
+                } catch (DuplicateKeyException e) {
+                    // Another transaction inserted the row first
+                    update(key, day, totals);
+                }
+            }
+            if (totals.orders < 0) {
+                jdbcTemplate.update(DELETE_EMPTY_SQL, day, key.productId(), key.status());
+            }
+        });
+    }
+
+    private int update(Key key, Date day, Totals totals) {
+        return jdbcTemplate.update(UPDATE_SQL, totals.orders, totals.quantity, totals.revenue, day,
+                key.productId(), key.status());
+    }
+
+    private record Key(LocalDate day, Long productId, String status) {
+    }
+
+    private static final class Totals {
+        private long orders;
+        private long quantity;
+        private BigDecimal revenue = BigDecimal.ZERO;
+    }
+} // End of class
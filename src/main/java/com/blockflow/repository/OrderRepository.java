@@ -1,9 +1,20 @@
 package com.blockflow.repository;
 
+import com.blockflow.dto.OrderSummary;
 import com.blockflow.model.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // One select for the page (user joined for the username) plus one count
+    @Query(value = "SELECT new com.blockflow.dto.OrderSummary(o.id, o.orderDate, o.productId, o.quantity, "
+            + "o.totalAmount, o.customerName, o.status, u.id, u.username) "
+            + "FROM Order o LEFT JOIN o.user u",
+            countQuery = "SELECT count(o) FROM Order o")
+    Page<OrderSummary> findSummaries(Pageable pageable);
 }
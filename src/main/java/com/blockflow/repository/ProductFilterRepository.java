@@ -0,0 +1,16 @@
+package com.blockflow.repository;
+
+import com.blockflow.dto.DimensionFilter;
+import com.blockflow.dto.ProductResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import java.math.BigDecimal;
+
+/**
+ * Catalog search with optional dimension ranges. The query only contains the
+ * conditions that are actually set, so each range can use its column index.
+ */
+public interface ProductFilterRepository {
+    Page<ProductResponse> findResponsesByFilter(String keyword, String category, BigDecimal minPrice,
+            BigDecimal maxPrice, DimensionFilter dimensions, Pageable pageable);
+}
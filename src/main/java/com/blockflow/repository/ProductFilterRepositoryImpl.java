@@ -0,0 +1,96 @@
+package com.blockflow.repository;
+
+import com.blockflow.dto.DimensionFilter;
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Selects straight into ProductResponse, like ProductRepository.SELECT_RESPONSE
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponse> findResponsesByFilter(String keyword, String category, BigDecimal minPrice,
+            BigDecimal maxPrice, DimensionFilter dimensions, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ProductResponse> select = cb.createQuery(ProductResponse.class);
+        Root<Product> p = select.from(Product.class);
+        select.select(cb.construct(ProductResponse.class, p.get("id"), p.get("name"), p.get("dimensions"),
+                p.get("lengthMm"), p.get("heightMm"), p.get("thicknessMm"), p.get("pricePerUnit"),
+                p.get("stockQuantity"), p.get("description"), p.get("weight"), p.get("createdAt"),
+                p.get("updatedAt")))
+                .where(predicates(cb, p, keyword, category, minPrice, maxPrice, dimensions))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), p, cb));
+        TypedQuery<ProductResponse> query = entityManager.createQuery(select);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+            CriteriaQuery<Long> count = cb.createQuery(Long.class);
+            Root<Product> c = count.from(Product.class);
+            count.select(cb.count(c)).where(predicates(cb, c, keyword, category, minPrice, maxPrice, dimensions));
+            return entityManager.createQuery(count).getSingleResult();
+        });
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<Product> p, String keyword, String category,
+            BigDecimal minPrice, BigDecimal maxPrice, DimensionFilter dimensions) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (keyword != null && !keyword.isEmpty()) {
+            String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+            predicates.add(cb.or(cb.like(cb.lower(p.<String>get("name")), pattern),
+                    cb.like(cb.lower(p.<String>get("description")), pattern)));
+        }
+        if (category != null && !category.isEmpty()) {
+            predicates.add(cb.equal(p.get("category"), category));
+        }
+        // Prices are positive, so the default lower bound of 0 is left out; an
+        // open-ended price condition then looks less selective to the planner
+        // than a dimension range and does not win the index choice
+        if (minPrice.signum() > 0) {
+            predicates.add(cb.between(p.get("pricePerUnit"), minPrice, maxPrice));
+        } else {
+            predicates.add(cb.lessThanOrEqualTo(p.get("pricePerUnit"), maxPrice));
+        }
+        addRange(cb, predicates, p.<Integer>get("lengthMm"), dimensions.getMinLength(), dimensions.getMaxLength(),
+                0, Integer.MAX_VALUE);
+        addRange(cb, predicates, p.<Integer>get("heightMm"), dimensions.getMinHeight(), dimensions.getMaxHeight(),
+                0, Integer.MAX_VALUE);
+        addRange(cb, predicates, p.<Integer>get("thicknessMm"), dimensions.getMinThickness(),
+                dimensions.getMaxThickness(), 0, Integer.MAX_VALUE);
+        addRange(cb, predicates, p.<Long>get("volumeMm3"), dimensions.getMinVolumeMm3(),
+                dimensions.getMaxVolumeMm3(), 0L, Long.MAX_VALUE);
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    // Always a closed BETWEEN, for the same reason as the price bound above
+    private static <T extends Comparable<? super T>> void addRange(CriteriaBuilder cb, List<Predicate> predicates,
+            Expression<T> column, T min, T max, T lowest, T highest) {
+        if (min != null || max != null) {
+            predicates.add(cb.between(column, min != null ? min : lowest, max != null ? max : highest));
+        }
+    }
+} // End of class
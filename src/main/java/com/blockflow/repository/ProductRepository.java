@@ -1,44 +1,78 @@
 package com.blockflow.repository;
 
+import com.blockflow.dto.ProductResponse;
 import com.blockflow.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.math.BigDecimal;
 
+// findResponsesByFilter (dimension ranges) comes from ProductFilterRepository
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFilterRepository {
+
+        // Catalog reads select straight into ProductResponse, so no entities are
+        // managed, snapshotted for dirty checking or mapped afterwards.
+        String SELECT_RESPONSE = "SELECT new com.blockflow.dto.ProductResponse(p.id, p.name, p.dimensions, "
+                        + "p.lengthMm, p.heightMm, p.thicknessMm, p.pricePerUnit, p.stockQuantity, p.description, "
+                        + "p.weight, p.createdAt, p.updatedAt) FROM Product p";
+        String COUNT = "SELECT count(p) FROM Product p";
+
+        String KEYWORD_MATCHES = "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) "
+                        + "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))";
+        String PRICE_BETWEEN = "p.pricePerUnit BETWEEN :minPrice AND :maxPrice";
 
         // ✅ Search by name or description
-        @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+        @Query("SELECT p FROM Product p WHERE " + KEYWORD_MATCHES)
         List<Product> searchByNameOrDescription(@Param("keyword") String keyword);
 
+        @Query(value = SELECT_RESPONSE + " WHERE " + KEYWORD_MATCHES, countQuery = COUNT + " WHERE " + KEYWORD_MATCHES)
+        Page<ProductResponse> searchByNameOrDescription(@Param("keyword") String keyword, Pageable pageable);
+
+        @Query(value = SELECT_RESPONSE, countQuery = COUNT)
+        Page<ProductResponse> findAllResponses(Pageable pageable);
+
+        // Page without the COUNT(*) query
+        @Query(SELECT_RESPONSE)
+        Slice<ProductResponse> findResponseSlice(Pageable pageable);
+
+        @Query(SELECT_RESPONSE + " WHERE p.id IN :ids")
+        List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+        @Query(SELECT_RESPONSE + " ORDER BY p.name ASC")
+        List<ProductResponse> findAllResponsesOrderByName();
+
+        @Query(SELECT_RESPONSE + " WHERE p.stockQuantity > 0")
+        List<ProductResponse> findAvailableResponses();
+
         // ✅ Filter by category and price
-        @Query("SELECT p FROM Product p WHERE p.category = :category AND p.pricePerUnit BETWEEN :minPrice AND :maxPrice")
-        Page<Product> findByCategoryAndPriceBetween(
+        @Query(value = SELECT_RESPONSE + " WHERE p.category = :category AND " + PRICE_BETWEEN,
+                        countQuery = COUNT + " WHERE p.category = :category AND " + PRICE_BETWEEN)
+        Page<ProductResponse> findByCategoryAndPriceBetween(
                         @Param("category") String category,
                         @Param("minPrice") BigDecimal minPrice,
                         @Param("maxPrice") BigDecimal maxPrice,
                         Pageable pageable);
 
         // ✅ Filter by price range only
-        @Query("SELECT p FROM Product p WHERE p.pricePerUnit BETWEEN :minPrice AND :maxPrice")
-        Page<Product> findByPriceBetween(
+        @Query(value = SELECT_RESPONSE + " WHERE " + PRICE_BETWEEN, countQuery = COUNT + " WHERE " + PRICE_BETWEEN)
+        Page<ProductResponse> findByPriceBetween(
                         @Param("minPrice") BigDecimal minPrice,
                         @Param("maxPrice") BigDecimal maxPrice,
                         Pageable pageable);
 
         // ✅ Advanced search with all filters
-        @Query("SELECT p FROM Product p WHERE " +
-                        "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) "
-                        +
-                        "AND p.category = :category " +
-                        "AND p.pricePerUnit BETWEEN :minPrice AND :maxPrice")
-        Page<Product> advancedSearch(
+        @Query(value = SELECT_RESPONSE + " WHERE " + KEYWORD_MATCHES + " AND p.category = :category AND "
+                        + PRICE_BETWEEN,
+                        countQuery = COUNT + " WHERE " + KEYWORD_MATCHES + " AND p.category = :category AND "
+                                        + PRICE_BETWEEN)
+        Page<ProductResponse> advancedSearch(
                         @Param("keyword") String keyword,
                         @Param("category") String category,
                         @Param("minPrice") BigDecimal minPrice,
@@ -46,11 +80,9 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                         Pageable pageable);
 
         // ✅ Search with price filter (no category)
-        @Query("SELECT p FROM Product p WHERE " +
-                        "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))) "
-                        +
-                        "AND p.pricePerUnit BETWEEN :minPrice AND :maxPrice")
-        Page<Product> searchWithPriceFilter(
+        @Query(value = SELECT_RESPONSE + " WHERE " + KEYWORD_MATCHES + " AND " + PRICE_BETWEEN,
+                        countQuery = COUNT + " WHERE " + KEYWORD_MATCHES + " AND " + PRICE_BETWEEN)
+        Page<ProductResponse> searchWithPriceFilter(
                         @Param("keyword") String keyword,
                         @Param("minPrice") BigDecimal minPrice,
                         @Param("maxPrice") BigDecimal maxPrice,
@@ -90,4 +122,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
         List<Product> findByStockQuantityGreaterThan(Integer stock);
 
         List<Product> findByDimensions(String dimensions);
+
+        // Upsert by name in ProductImportService
+        List<Product> findByNameIn(Collection<String> names);
 }
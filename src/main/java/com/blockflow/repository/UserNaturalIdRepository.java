@@ -0,0 +1,12 @@
+package com.blockflow.repository;
+
+import com.blockflow.model.User;
+import java.util.Optional;
+
+/**
+ * Username lookups through Hibernate's natural-id API, so they are answered
+ * from the second-level cache instead of a query per call.
+ */
+public interface UserNaturalIdRepository {
+    Optional<User> findByUsername(String username);
+}
@@ -1,11 +1,47 @@
 package com.blockflow.repository;
 
+import com.blockflow.dto.UserSummary;
 import com.blockflow.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+// findByUsername comes from UserNaturalIdRepository
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 
     Optional<User> findByEmail(String email);
+
+    // One select for the page plus one count; null filters match every user
+    @Query(value = "SELECT new com.blockflow.dto.UserSummary(u.id, u.username, u.email, u.firstName, "
+            + "u.lastName, u.role, u.enabled, u.createdAt) FROM User u "
+            + "WHERE (:role IS NULL OR u.role = :role) AND (:enabled IS NULL OR u.enabled = :enabled)",
+            countQuery = "SELECT count(u) FROM User u "
+            + "WHERE (:role IS NULL OR u.role = :role) AND (:enabled IS NULL OR u.enabled = :enabled)")
+    Page<UserSummary> findSummaries(@Param("role") User.Role role, @Param("enabled") Boolean enabled,
+            Pageable pageable);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.enabled <> :enabled")
+    List<Long> findIdsWithEnabledOtherThan(@Param("ids") Collection<Long> ids, @Param("enabled") boolean enabled);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.role <> :role")
+    List<Long> findIdsWithRoleOtherThan(@Param("ids") Collection<Long> ids, @Param("role") User.Role role);
+
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.id NOT IN :keepIds")
+    List<Long> findIdsWithRoleExcept(@Param("role") User.Role role, @Param("keepIds") Collection<Long> keepIds);
+
+    // Set-based writes: Hibernate evicts the User cache regions after a bulk
+    // UPDATE, the callers drop the cached tokens of the affected users
+    @Modifying
+    @Query("UPDATE User u SET u.enabled = :enabled WHERE u.id IN :ids AND u.enabled <> :enabled")
+    int updateEnabled(@Param("ids") Collection<Long> ids, @Param("enabled") boolean enabled);
+
+    @Modifying
+    @Query("UPDATE User u SET u.role = :role WHERE u.id IN :ids AND u.role <> :role")
+    int updateRole(@Param("ids") Collection<Long> ids, @Param("role") User.Role role);
 }
@@ -0,0 +1,210 @@
+package com.blockflow.search;
+
+import com.blockflow.dto.CategoryFacet;
+import com.blockflow.dto.PriceBucket;
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Category facets for the product filter sidebar: product count and a price
+ * histogram per category.
+ *
+ * Built once from the database and then kept up to date from
+ * ProductChangedEvent. Writers are serialized and publish an immutable
+ * snapshot, so reads never lock and never touch the database.
+ */
+@Component
+@Slf4j
+public class CategoryFacetIndex {
+
+    private static final String SELECT_FACET_FIELDS_SQL = "SELECT id, category, price_per_unit FROM products";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Lower bounds of the price buckets after the first one, ascending
+    private final BigDecimal[] bucketEdges;
+
+    // Serializes writers; a lock rather than synchronized because rebuild()
+    // runs JDBC, which would pin the carrier on a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Guarded by writeLock: product id -> what it was counted under
+    private final Map<Long, FacetEntry> entries = new HashMap<>();
+    private final Map<String, CategoryStats> stats = new TreeMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList(), Collections.emptyList());
+    private volatile boolean ready;
+
+    public CategoryFacetIndex(JdbcTemplate jdbcTemplate,
+            @Value("${blockflow.facets.price-bucket-edges:25,50,100,200}") BigDecimal[] bucketEdges) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketEdges = bucketEdges.clone();
+        Arrays.sort(this.bucketEdges);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        writeLock.lock();
+        try {
+            entries.clear();
+            stats.clear();
+            jdbcTemplate.query(SELECT_FACET_FIELDS_SQL, rs -> {
+                add(rs.getLong("id"), rs.getString("category"), rs.getBigDecimal("price_per_unit"));
+            });
+            publish();
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Category facets built: {} products in {} categories in {} ms", entries.size(), stats.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        writeLock.lock();
+        try {
+            remove(event.getProductId());
+            if (event.getType() != ProductChangedEvent.Type.DELETED) {
+                Product product = event.getProduct();
+                add(product.getId(), product.getCategory(), product.getPricePerUnit());
+            }
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Distinct non-null categories in alphabetical order.
+     */
+    public List<String> getCategories() {
+        ensureBuilt();
+        return snapshot.categories;
+    }
+
+    public List<CategoryFacet> getFacets() {
+        ensureBuilt();
+        return snapshot.facets;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Requests can arrive before ApplicationReadyEvent; build on demand then
+    private void ensureBuilt() {
+        if (!ready) {
+            writeLock.lock();
+            try {
+                if (!ready) {
+                    rebuild();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void add(long productId, String category, BigDecimal price) {
+        if (category == null) {
+            return;
+        }
+        entries.put(productId, new FacetEntry(category, price));
+        stats.computeIfAbsent(category, c -> new CategoryStats(bucketEdges.length + 1)).add(price, bucketOf(price));
+    }
+
+    private void remove(Long productId) {
+        FacetEntry entry = entries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        CategoryStats categoryStats = stats.get(entry.category);
+        categoryStats.remove(entry.price, bucketOf(entry.price));
+        if (categoryStats.count == 0) {
+            stats.remove(entry.category);
+        }
+    }
+
+    private int bucketOf(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        int bucket = 0;
+        while (bucket < bucketEdges.length && price.compareTo(bucketEdges[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void publish() {
+        List<String> categories = new ArrayList<>(stats.size());
+        List<CategoryFacet> facets = new ArrayList<>(stats.size());
+        for (Map.Entry<String, CategoryStats> entry : stats.entrySet()) {
+            CategoryStats categoryStats = entry.getValue();
+            List<PriceBucket> buckets = new ArrayList<>(categoryStats.bucketCounts.length);
+            for (int i = 0; i < categoryStats.bucketCounts.length; i++) {
+                BigDecimal from = i == 0 ? BigDecimal.ZERO : bucketEdges[i - 1];
+                BigDecimal to = i < bucketEdges.length ? bucketEdges[i] : null;
+                buckets.add(new PriceBucket(from, to, categoryStats.bucketCounts[i]));
+            }
+            categories.add(entry.getKey());
+            facets.add(new CategoryFacet(entry.getKey(), categoryStats.count,
+                    categoryStats.prices.isEmpty() ? null : categoryStats.prices.firstKey(),
+                    categoryStats.prices.isEmpty() ? null : categoryStats.prices.lastKey(),
+                    Collections.unmodifiableList(buckets)));
+        }
+        snapshot = new Snapshot(Collections.unmodifiableList(categories), Collections.unmodifiableList(facets));
+    }
+
+    private record FacetEntry(String category, BigDecimal price) {
+    }
+
+    private record Snapshot(List<String> categories, List<CategoryFacet> facets) {
+    }
+
+    private static final class CategoryStats {
+        private long count;
+        private final long[] bucketCounts;
+        // price -> number of products at that price, for min/max under removal
+        private final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+
+        private CategoryStats(int buckets) {
+            this.bucketCounts = new long[buckets];
+        }
+
+        private void add(BigDecimal price, int bucket) {
+            count++;
+            if (price != null) {
+                bucketCounts[bucket]++;
+                prices.merge(price, 1, Integer::sum);
+            }
+        }
+
+        private void remove(BigDecimal price, int bucket) {
+            count--;
+            if (price != null) {
+                bucketCounts[bucket]--;
+                prices.computeIfPresent(price, (p, n) -> n == 1 ? null : n - 1);
+            }
+        }
+    }
+} // End of class
@@ -0,0 +1,60 @@
+package com.blockflow.search;
+
+import com.blockflow.model.Product;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight snapshot of the product fields needed to filter and sort search
+ * hits without going back to the database.
+ */
+@Getter
+public class IndexedProduct {
+
+    private final Long id;
+    private final String category;
+    private final BigDecimal pricePerUnit;
+    private final LocalDateTime createdAt;
+    private final Integer lengthMm;
+    private final Integer heightMm;
+    private final Integer thicknessMm;
+    private final Long volumeMm3;
+    private volatile long viewCount;
+
+    /**
+     * Relevance score of the last query this snapshot was returned for.
+     * Only meaningful on the copies handed out by ProductSearchIndex.search.
+     */
+    private final float score;
+
+    IndexedProduct(Product product, long viewCount) {
+        this(product.getId(), product.getCategory(), product.getPricePerUnit(), product.getCreatedAt(),
+                product.getLengthMm(), product.getHeightMm(), product.getThicknessMm(), product.getVolumeMm3(),
+                viewCount, 0f);
+    }
+
+    private IndexedProduct(Long id, String category, BigDecimal pricePerUnit, LocalDateTime createdAt,
+            Integer lengthMm, Integer heightMm, Integer thicknessMm, Long volumeMm3, long viewCount, float score) {
+        this.id = id;
+        this.category = category;
+        this.pricePerUnit = pricePerUnit;
+        this.createdAt = createdAt;
+        this.lengthMm = lengthMm;
+        this.heightMm = heightMm;
+        this.thicknessMm = thicknessMm;
+        this.volumeMm3 = volumeMm3;
+        this.viewCount = viewCount;
+        this.score = score;
+    }
+
+    IndexedProduct withScore(float score) {
+        return new IndexedProduct(id, category, pricePerUnit, createdAt, lengthMm, heightMm, thicknessMm, volumeMm3,
+                viewCount, score);
+    }
+
+    synchronized void addViews(long delta) {
+        viewCount += delta;
+    }
+} // End of class
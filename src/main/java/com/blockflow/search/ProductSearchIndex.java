@@ -0,0 +1,267 @@
+package com.blockflow.search;
+
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.model.Product;
+import com.blockflow.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, category and description.
+ *
+ * Terms are kept in a sorted map so that the last (possibly half typed) query
+ * token can be matched as a prefix. Every query token must match for a product
+ * to be returned; hits are ranked by the summed field weight of the matching
+ * terms, with exact term matches scoring higher than prefix matches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product id -> summed field weight)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    // product id -> indexed snapshot and the terms it was indexed under
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<Product> products;
+        // Loaded under the lock, so a change committed meanwhile is applied after
+        // the snapshot instead of being overwritten by it
+        lock.writeLock().lock();
+        try {
+            products = productRepository.findAll();
+            postings.clear();
+            documents.clear();
+            documentTerms.clear();
+            products.forEach(product -> addDocument(product, viewsOf(product)));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products, {} terms in {} ms", products.size(), postings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            remove(event.getProductId());
+        } else {
+            index(event.getProduct());
+        }
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            // Views are only written by ProductViewCounter, so the saved
+            // entity's count can lag behind ours
+            IndexedProduct previous = documents.get(product.getId());
+            long views = previous != null ? previous.getViewCount() : viewsOf(product);
+            removeDocument(product.getId());
+            addDocument(product, views);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the view count used for "popular" sorting in step with the database.
+     */
+    public void recordViews(Long productId, long delta) {
+        lock.readLock().lock();
+        try {
+            IndexedProduct document = documents.get(productId);
+            if (document != null) {
+                document.addViews(delta);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all products matching every token of the query, best match first.
+     * Ties are broken by newest id first, matching the repository's default sort.
+     */
+    public List<IndexedProduct> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                Map<Long, Float> tokenScores = scoreToken(tokens.get(i), i == tokens.size() - 1);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Float> merged = new HashMap<>();
+                    for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                        Float tokenScore = tokenScores.get(entry.getKey());
+                        if (tokenScore != null) {
+                            merged.put(entry.getKey(), entry.getValue() + tokenScore);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<IndexedProduct> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                hits.add(documents.get(entry.getKey()).withScore(entry.getValue()));
+            }
+            hits.sort((a, b) -> {
+                int byScore = Float.compare(b.getScore(), a.getScore());
+                return byScore != 0 ? byScore : Long.compare(b.getId(), a.getId());
+            });
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * False until the initial build has finished; callers fall back to the
+     * database until then.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean contains(Long productId) {
+        lock.readLock().lock();
+        try {
+            return documents.containsKey(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only the last token may be half typed; the others must match a whole term
+    private Map<Long, Float> scoreToken(String token, boolean isLast) {
+        Map<Long, Float> tokenScores = new HashMap<>();
+        if (!isLast) {
+            Map<Long, Integer> termPostings = postings.get(token);
+            if (termPostings != null) {
+                termPostings.forEach((id, weight) -> tokenScores.put(id, (float) weight));
+            }
+            return tokenScores;
+        }
+        for (Map.Entry<String, Map<Long, Integer>> term : postings
+                .subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_MATCH_FACTOR;
+            for (Map.Entry<Long, Integer> posting : term.getValue().entrySet()) {
+                tokenScores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    private void addDocument(Product product, long viewCount) {
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        Long id = product.getId();
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+        documents.put(id, new IndexedProduct(product, viewCount));
+        documentTerms.put(id, new HashSet<>(weights.keySet()));
+    }
+
+    private static long viewsOf(Product product) {
+        return product.getViewCount() != null ? product.getViewCount() : 0L;
+    }
+
+    private void removeDocument(Long productId) {
+        documents.remove(productId);
+        Set<String> terms = documentTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+} // End of class
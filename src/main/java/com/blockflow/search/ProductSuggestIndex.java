@@ -0,0 +1,530 @@
+package com.blockflow.search;
+
+import com.blockflow.dto.ProductSuggestion;
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Typo-tolerant autocomplete over product names and categories.
+ *
+ * Every name and category token is stored in a character trie. A query token
+ * is matched by walking the trie with a Damerau-Levenshtein row per node; the
+ * walk yields the subtrees whose path is within a few edits of the token
+ * ("lintl" reaches "lint..."). Every query token must match; hits are ranked
+ * by fewest edits, then by view count.
+ *
+ * Subtrees remember their most viewed products, so a short, broad prefix does
+ * not have to visit every product below it. Those lists are dropped on every
+ * product change and re-ranked for view counts every rank-refresh-ms.
+ *
+ * Built once with a JDBC scan and kept up to date from ProductChangedEvent and
+ * the view counter's flushes.
+ */
+@Component
+@Slf4j
+public class ProductSuggestIndex {
+
+    private static final String SELECT_SUGGEST_FIELDS_SQL = "SELECT id, name, category, view_count FROM products";
+
+    private static final Comparator<ProductSuggestion> BEST_FIRST = Comparator
+            .comparingInt(ProductSuggestion::getEdits)
+            .thenComparing(Comparator.comparingLong(ProductSuggestion::getViewCount).reversed())
+            .thenComparing(Comparator.comparing(ProductSuggestion::getId).reversed());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxEdits;
+    private final int maxResults;
+    private final long rankRefreshMillis;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final TrieNode root = new TrieNode();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    // Bumped by every add and remove; cached top lists from older versions are stale
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile boolean ready;
+
+    public ProductSuggestIndex(JdbcTemplate jdbcTemplate,
+            @Value("${blockflow.suggest.max-edits:2}") int maxEdits,
+            @Value("${blockflow.suggest.max-results:20}") int maxResults,
+            @Value("${blockflow.suggest.rank-refresh-ms:30000}") long rankRefreshMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxEdits = maxEdits;
+        this.maxResults = maxResults;
+        this.rankRefreshMillis = rankRefreshMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            root.clear();
+            entries.clear();
+            jdbcTemplate.query(SELECT_SUGGEST_FIELDS_SQL, rs -> {
+                add(new Entry(rs.getLong("id"), rs.getString("name"), rs.getString("category"),
+                        rs.getLong("view_count")));
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product suggest index built: {} products in {} ms", entries.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = remove(event.getProductId());
+            if (event.getType() != ProductChangedEvent.Type.DELETED) {
+                Product product = event.getProduct();
+                // Views are only written by ProductViewCounter, so the saved
+                // entity's count can lag behind ours
+                long views = previous != null ? previous.viewCount
+                        : product.getViewCount() != null ? product.getViewCount() : 0L;
+                add(new Entry(product.getId(), product.getName(), product.getCategory(), views));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the view count used for ranking in step with the database.
+     */
+    public void recordViews(Long productId, long delta) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(productId);
+            if (entry != null) {
+                entry.addViews(delta);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} products whose name or category tokens start
+     * with every token of the query, allowing a few typos per token.
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(ProductSearchIndex.tokenize(prefix)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        limit = Math.min(limit, maxResults);
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            // Start from the token with the fewest candidates; the others are
+            // checked against each candidate's own terms, most selective first
+            List<TokenMatch> matches = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                TokenMatch match = new TokenMatch(regions(token));
+                if (match.postings == 0) {
+                    return Collections.emptyList();
+                }
+                matches.add(match);
+            }
+            matches.sort(Comparator.comparingLong(TokenMatch::postings));
+            List<Region> candidateRegions = matches.get(0).regions;
+            List<List<Region>> otherTokens = new ArrayList<>(matches.size() - 1);
+            for (TokenMatch match : matches.subList(1, matches.size())) {
+                otherTokens.add(match.regions);
+            }
+
+            int otherMinEdits = 0;
+            for (List<Region> regions : otherTokens) {
+                otherMinEdits += regions.get(0).edits;
+            }
+
+            // Regions come fewest edits first and each lists its products most
+            // viewed first, so the scan stops as soon as nothing left can make
+            // the top N
+            PriorityQueue<ProductSuggestion> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            long now = System.currentTimeMillis();
+            for (int r = 0; r < candidateRegions.size(); r++) {
+                Region region = candidateRegions.get(r);
+                int floor = region.edits + otherMinEdits;
+                if (top.size() == limit && floor > top.peek().getEdits()) {
+                    break;
+                }
+                if (coveredByEarlier(candidateRegions, r)) {
+                    continue;
+                }
+                for (Entry entry : region.node.byViews(this, now)) {
+                    if (top.size() == limit && ranksBelow(floor, entry.viewCount, entry.id, top.peek())) {
+                        break;
+                    }
+                    if (r > 0 && entry.inAnyRegion(candidateRegions.subList(0, r))) {
+                        // Already seen in a region needing no more edits
+                        continue;
+                    }
+                    int otherEdits = entry.edits(otherTokens);
+                    if (otherEdits < 0) {
+                        continue;
+                    }
+                    top.add(new ProductSuggestion(entry.id, entry.name, entry.category, entry.viewCount,
+                            region.edits + otherEdits));
+                    if (top.size() > limit) {
+                        // Drops the worst of the current top N
+                        top.poll();
+                    }
+                }
+            }
+            List<ProductSuggestion> suggestions = new ArrayList<>(top);
+            suggestions.sort(BEST_FIRST);
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // True when every term below the region was already under an earlier,
+    // nested region ("kerb" within "ker" when nothing else starts with "ker")
+    private static boolean coveredByEarlier(List<Region> regions, int index) {
+        Region region = regions.get(index);
+        long nested = 0;
+        for (Region earlier : regions.subList(0, index)) {
+            if (earlier.prefix.startsWith(region.prefix)) {
+                nested += earlier.node.postings;
+            }
+        }
+        return nested == region.node.postings;
+    }
+
+    // BEST_FIRST for a hit that has not been built yet
+    private static boolean ranksBelow(int edits, long viewCount, long id, ProductSuggestion other) {
+        if (edits != other.getEdits()) {
+            return edits > other.getEdits();
+        }
+        if (viewCount != other.getViewCount()) {
+            return viewCount < other.getViewCount();
+        }
+        return id < other.getId();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Requests can arrive before ApplicationReadyEvent; build on demand then
+    private void ensureBuilt() {
+        if (!ready) {
+            lock.writeLock().lock();
+            try {
+                if (!ready) {
+                    rebuild();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Short tokens must match exactly, otherwise almost everything would
+    private int allowedEdits(String token) {
+        int allowed = token.length() <= 2 ? 0 : token.length() <= 5 ? 1 : 2;
+        return Math.min(allowed, maxEdits);
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.id, entry);
+        for (String term : entry.terms) {
+            root.insert(term, 0, entry);
+        }
+        version.incrementAndGet();
+    }
+
+    private Entry remove(Long productId) {
+        Entry entry = entries.remove(productId);
+        if (entry != null) {
+            for (String term : entry.terms) {
+                root.delete(term, 0, entry);
+            }
+            version.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Subtrees whose terms all start within the allowed edits of the token,
+     * each with the fewest edits seen on its path. A nested region is only
+     * listed when it needs fewer edits than the one containing it.
+     */
+    private List<Region> regions(String token) {
+        char[] query = token.toCharArray();
+        int allowed = allowedEdits(token);
+        int[] row = new int[query.length + 1];
+        for (int j = 0; j <= query.length; j++) {
+            row[j] = j;
+        }
+        List<Region> regions = new ArrayList<>();
+        walk(root, query, allowed, row, null, new StringBuilder(), allowed + 1, regions);
+        regions.sort(Comparator.comparingInt(Region::edits));
+        return regions;
+    }
+
+    /**
+     * Depth-first walk of the trie. row[j] is the edit distance between the
+     * path to this node and the first j query characters, so row[length] is
+     * the cost of the whole query against the path.
+     */
+    private static void walk(TrieNode node, char[] query, int allowed, int[] row, int[] previousRow,
+            StringBuilder path, int best, List<Region> regions) {
+        char nodeChar = path.length() > 0 ? path.charAt(path.length() - 1) : 0;
+        for (int i = 0; i < node.size; i++) {
+            char c = node.keys[i];
+            int[] childRow = nextRow(query, row, previousRow, nodeChar, c);
+            path.append(c);
+            int rowMin = Integer.MAX_VALUE;
+            for (int distance : childRow) {
+                rowMin = Math.min(rowMin, distance);
+            }
+            int childBest = Math.min(best, childRow[query.length]);
+            if (childBest < best) {
+                regions.add(new Region(node.children[i], path.toString(), childBest));
+            }
+            // Only go deeper while a longer path could still need fewer edits
+            if (rowMin < childBest && rowMin <= allowed) {
+                walk(node.children[i], query, allowed, childRow, row, path, childBest, regions);
+            }
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    // One step of optimal string alignment distance for appending c to the path
+    private static int[] nextRow(char[] query, int[] row, int[] previousRow, char previousChar, char c) {
+        int[] next = new int[query.length + 1];
+        next[0] = row[0] + 1;
+        for (int j = 1; j <= query.length; j++) {
+            int cost = query[j - 1] == c ? 0 : 1;
+            int distance = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+            // Swapped neighbours ("jmubo") count as one edit
+            if (previousRow != null && j > 1 && query[j - 1] == previousChar && query[j - 2] == c) {
+                distance = Math.min(distance, previousRow[j - 2] + 1);
+            }
+            next[j] = distance;
+        }
+        return next;
+    }
+
+    /**
+     * A trie subtree matching a query token: every term below starts with
+     * prefix, which is within edits of the token.
+     */
+    private record Region(TrieNode node, String prefix, int edits) {
+    }
+
+    private record TokenMatch(List<Region> regions, long postings) {
+        private TokenMatch(List<Region> regions) {
+            this(regions, regions.stream().mapToLong(region -> region.node.postings).sum());
+        }
+    }
+
+    private record RankedList(long version, long rankedAt, Entry[] entries) {
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final String name;
+        private final String category;
+        private final String[] terms;
+        private volatile long viewCount;
+
+        private Entry(long id, String name, String category, long viewCount) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.viewCount = viewCount;
+            Set<String> distinct = new LinkedHashSet<>(ProductSearchIndex.tokenize(name));
+            distinct.addAll(ProductSearchIndex.tokenize(category));
+            this.terms = distinct.toArray(new String[0]);
+        }
+
+        private synchronized void addViews(long delta) {
+            viewCount += delta;
+        }
+
+        // Summed edits for the given tokens' regions, or -1 if a token has
+        // no region that one of this product's terms falls in
+        private int edits(List<List<Region>> tokenRegions) {
+            int total = 0;
+            for (List<Region> regions : tokenRegions) {
+                // Regions come fewest edits first, so the first hit is the best
+                int best = -1;
+                for (Region region : regions) {
+                    if (hasTermStartingWith(region.prefix)) {
+                        best = region.edits;
+                        break;
+                    }
+                }
+                if (best < 0) {
+                    return -1;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        private boolean inAnyRegion(List<Region> regions) {
+            for (Region region : regions) {
+                if (hasTermStartingWith(region.prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasTermStartingWith(String prefix) {
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Trie node with children in a sorted array; most nodes have one or two.
+     */
+    private static final class TrieNode {
+        // Smaller subtrees are ranked on every query instead
+        private static final int RANKED_CACHE_MIN_POSTINGS = 64;
+        private static final char[] NO_KEYS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private char[] keys = NO_KEYS;
+        private TrieNode[] children = NO_CHILDREN;
+        private int size;
+        // Products that have a term ending at this node (identity set)
+        private Set<Entry> termEntries;
+        // (term, product) pairs in this subtree
+        private int postings;
+        // Products in this subtree by views, built on first use
+        private volatile RankedList ranked;
+
+        private void clear() {
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+            size = 0;
+            termEntries = null;
+            postings = 0;
+            ranked = null;
+        }
+
+        private void insert(String term, int depth, Entry entry) {
+            postings++;
+            if (depth == term.length()) {
+                if (termEntries == null) {
+                    termEntries = new HashSet<>(2);
+                }
+                termEntries.add(entry);
+                return;
+            }
+            char c = term.charAt(depth);
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            if (i < 0) {
+                i = -i - 1;
+                if (size == keys.length) {
+                    int capacity = Math.max(2, size * 2);
+                    keys = Arrays.copyOf(keys, capacity);
+                    children = Arrays.copyOf(children, capacity);
+                }
+                System.arraycopy(keys, i, keys, i + 1, size - i);
+                System.arraycopy(children, i, children, i + 1, size - i);
+                keys[i] = c;
+                children[i] = new TrieNode();
+                size++;
+            }
+            children[i].insert(term, depth + 1, entry);
+        }
+
+        // Returns true when this node is left empty and can be unlinked
+        private boolean delete(String term, int depth, Entry entry) {
+            postings--;
+            if (depth == term.length()) {
+                if (termEntries != null) {
+                    termEntries.remove(entry);
+                    if (termEntries.isEmpty()) {
+                        termEntries = null;
+                    }
+                }
+            } else {
+                int i = Arrays.binarySearch(keys, 0, size, term.charAt(depth));
+                if (i >= 0 && children[i].delete(term, depth + 1, entry)) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(children, i + 1, children, i, size - i - 1);
+                    size--;
+                    children[size] = null;
+                }
+            }
+            return size == 0 && termEntries == null;
+        }
+
+        private void forEachEntryBelow(Consumer<Entry> action) {
+            if (termEntries != null) {
+                termEntries.forEach(action);
+            }
+            for (int i = 0; i < size; i++) {
+                children[i].forEachEntryBelow(action);
+            }
+        }
+
+        /**
+         * Every product in this subtree, most viewed first. Kept for large
+         * subtrees until the index changes or the ranking is older than
+         * rank-refresh-ms. Called under the read lock; concurrent callers may
+         * both rebuild the list, which is harmless.
+         */
+        private Entry[] byViews(ProductSuggestIndex index, long now) {
+            boolean cacheable = postings > RANKED_CACHE_MIN_POSTINGS;
+            RankedList current = ranked;
+            long currentVersion = index.version.get();
+            if (cacheable && current != null && current.version == currentVersion
+                    && now - current.rankedAt < index.rankRefreshMillis) {
+                return current.entries;
+            }
+            // Views are copied first; they change under our feet otherwise
+            Map<Entry, Long> views = new HashMap<>();
+            forEachEntryBelow(entry -> views.putIfAbsent(entry, entry.viewCount));
+            Entry[] entries = views.keySet().toArray(new Entry[0]);
+            Arrays.sort(entries, Comparator.comparingLong((Entry e) -> views.get(e)).reversed()
+                    .thenComparing(Comparator.comparingLong((Entry e) -> e.id).reversed()));
+            if (cacheable) {
+                ranked = new RankedList(currentVersion, now, entries);
+            }
+            return entries;
+        }
+    }
+} // End of class
@@ -0,0 +1,183 @@
+package com.blockflow.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token buckets for the endpoints listed in
+ * blockflow.rate-limit.rules, in a fixed-size table without locks.
+ *
+ * Each bucket is a single long, the GCRA "theoretical arrival time": a request
+ * is admitted while that time stays within burst intervals of now, and moves it
+ * one interval ahead. Buckets are not keyed, so memory does not grow with the
+ * number of clients. A client hashes to two slots per rule and is limited by
+ * the emptier one, as in a count-min sketch. Clients that share a slot can
+ * only be under-admitted, and only a client whose slots are both shared with
+ * heavy users is throttled by someone else.
+ */
+@Component
+@Slf4j
+public class ClientRateLimiter {
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<Rule> rules;
+    private final AtomicLongArray slots;
+    private final int mask;
+    // Random per process, so colliding client keys cannot be precomputed
+    private final long seed = new SecureRandom().nextLong();
+    private final long origin = System.nanoTime();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ClientRateLimiter(@Value("${blockflow.rate-limit.rules:}") String rules,
+            @Value("${blockflow.rate-limit.slots:65536}") int slots) {
+        this.rules = parseRules(rules);
+        int size = Integer.highestOneBit(Math.max(2, slots - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.rules.forEach(rule -> log.info("Rate limit {}: {}/s, burst {}", rule.pattern, rule.perSecond,
+                rule.burst));
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * First rule whose pattern matches the path, or null if it is not limited.
+     */
+    public Rule ruleFor(String path) {
+        for (Rule rule : rules) {
+            if (pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a token for the client; returns 0 if the request is admitted,
+     * otherwise the nanoseconds until it would be.
+     */
+    public long acquire(Rule rule, String clientKey) {
+        long hash = hash(clientKey, rule.index);
+        int first = (int) hash & mask;
+        int second = (int) (hash >>> 32) & mask;
+
+        while (true) {
+            long now = System.nanoTime() - origin;
+            long firstTat = slots.get(first);
+            long secondTat = slots.get(second);
+            int chosen = firstTat <= secondTat ? first : second;
+            int other = chosen == first ? second : first;
+            long checked = Math.min(firstTat, secondTat);
+
+            long next = Math.max(checked, now) + rule.intervalNanos;
+            long wait = next - (now + rule.burstNanos);
+            if (wait > 0) {
+                rule.rejected.increment();
+                return wait;
+            }
+            // The other slot first, so a concurrent request for this client
+            // never sees both slots without this one's token taken
+            if (other != chosen) {
+                advance(other, now, rule.intervalNanos);
+            }
+            if (slots.compareAndSet(chosen, checked, next)) {
+                return 0;
+            }
+            // Another request took a token from the slot since it was checked:
+            // give the other slot's token back and check again
+            if (other != chosen) {
+                slots.addAndGet(other, -rule.intervalNanos);
+            }
+        }
+    }
+
+    private void advance(int slot, long now, long intervalNanos) {
+        long current;
+        do {
+            current = slots.get(slot);
+        } while (!slots.compareAndSet(slot, current, Math.max(current, now) + intervalNanos));
+    }
+
+    // Seeded FNV-1a over the key, then the MurmurHash3 finalizer
+    private long hash(String clientKey, int ruleIndex) {
+        long h = seed ^ ruleIndex;
+        for (int i = 0; i < clientKey.length(); i++) {
+            h = (h ^ clientKey.charAt(i)) * FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    // "pattern=perSecond:burst,..."
+    private static List<Rule> parseRules(String rules) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String entry : rules.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int equals = entry.lastIndexOf('=');
+            int colon = entry.lastIndexOf(':');
+            if (equals <= 0 || colon < equals) {
+                throw new IllegalArgumentException("Rate limit rule must be pattern=perSecond:burst, got: " + entry);
+            }
+            double perSecond = Double.parseDouble(entry.substring(equals + 1, colon).trim());
+            int burst = Integer.parseInt(entry.substring(colon + 1).trim());
+            if (perSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate limit rule needs perSecond > 0 and burst >= 1: " + entry);
+            }
+            parsed.add(new Rule(parsed.size(), entry.substring(0, equals).trim(), perSecond, burst));
+        }
+        return Collections.unmodifiableList(parsed);
+    }
+
+    public static final class Rule {
+        private final int index;
+        private final String pattern;
+        private final double perSecond;
+        private final int burst;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final LongAdder rejected = new LongAdder();
+
+        private Rule(int index, String pattern, double perSecond, int burst) {
+            this.index = index;
+            this.pattern = pattern;
+            this.perSecond = perSecond;
+            this.burst = burst;
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+            this.burstNanos = intervalNanos * burst;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public double getPerSecond() {
+            return perSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public long getRejectedCount() {
+            return rejected.sum();
+        }
+    }
+} // End of class
@@ -0,0 +1,183 @@
+package com.blockflow.security;
+
+import com.blockflow.model.User;
+import com.blockflow.repository.UserRepository;
+import com.blockflow.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of verified JWTs and the User principal they resolve to.
+ *
+ * Entries are keyed by a SHA-256 digest of the token, so raw bearer tokens are
+ * never held in memory, and expire after the configured TTL or when the token
+ * itself expires, whichever comes first. Invalid tokens and unknown or disabled
+ * users are never cached.
+ *
+ * Every entry remembers the invalidation sequence read before its user was
+ * loaded, and every invalidation records the sequence per user. An entry older
+ * than the last invalidation of its user is neither stored nor served, so a
+ * load that raced a disable or role change cannot bring the old principal back.
+ */
+@Component
+public class TokenPrincipalCache {
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final Cache<String, CachedPrincipal> cache;
+
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    // User id -> sequence of the last invalidation of that user
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    // Sequence of the last invalidateAll
+    private volatile long allInvalidatedAt;
+
+    public TokenPrincipalCache(JwtUtil jwtUtil, UserRepository userRepository,
+            @Value("${blockflow.auth.token-cache.max-size:10000}") long maxSize,
+            @Value("${blockflow.auth.token-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+                        long untilTokenExpiry = TimeUnit.MILLISECONDS
+                                .toNanos(value.expiresAtMillis - System.currentTimeMillis());
+                        return Math.max(0, Math.min(ttlNanos, untilTokenExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedPrincipal value, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the enabled user the token belongs to, or null if the token is
+     * invalid, expired, or names an unknown or disabled user.
+     */
+    public User resolve(String token) {
+        String key = digest(token);
+        CachedPrincipal cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (isCurrent(cached)) {
+                return cached.user;
+            }
+            cache.asMap().remove(key, cached);
+        }
+
+        long loadedAt = invalidationSequence.get();
+        Claims claims = jwtUtil.parseClaims(token);
+        if (claims == null || claims.getSubject() == null) {
+            return null;
+        }
+        User user = userRepository.findByUsername(claims.getSubject()).orElse(null);
+        if (user == null || !user.isEnabled()) {
+            return null;
+        }
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        CachedPrincipal loaded = new CachedPrincipal(claims, user, expiresAt, loadedAt);
+        // Checked under the entry's lock, so it cannot interleave with another
+        // resolve of the same token
+        cache.asMap().compute(key, (k, existing) -> {
+            if (existing != null && existing.loadedAt > loadedAt && isCurrent(existing)) {
+                return existing;
+            }
+            return isCurrent(loaded) ? loaded : null;
+        });
+        return user;
+    }
+
+    /**
+     * Drops every cached token of the given user, e.g. after a role change or
+     * when the account is disabled.
+     */
+    public void invalidateUser(Long userId) {
+        long sequence = invalidationSequence.incrementAndGet();
+        invalidatedAt.merge(userId, sequence, Math::max);
+        cache.asMap().values().removeIf(entry -> Objects.equals(entry.user.getId(), userId));
+    }
+
+    /**
+     * Drops every cached token of the given users in one pass over the cache.
+     */
+    public void invalidateUsers(Collection<Long> userIds) {
+        Set<Long> ids = new HashSet<>(userIds);
+        long sequence = invalidationSequence.incrementAndGet();
+        ids.forEach(id -> invalidatedAt.merge(id, sequence, Math::max));
+        cache.asMap().values().removeIf(entry -> ids.contains(entry.user.getId()));
+    }
+
+    public void invalidateAll() {
+        allInvalidatedAt = invalidationSequence.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // False once the user was invalidated after the entry was loaded; the
+    // removal of such entries may still be on its way
+    private boolean isCurrent(CachedPrincipal entry) {
+        return entry.loadedAt >= allInvalidatedAt
+                && entry.loadedAt >= invalidatedAt.getOrDefault(entry.user.getId(), 0L);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedPrincipal {
+        private final Claims claims;
+        private final User user;
+        private final long expiresAtMillis;
+        private final long loadedAt;
+
+        private CachedPrincipal(Claims claims, User user, long expiresAtMillis, long loadedAt) {
+            this.claims = claims;
+            this.user = user;
+            this.expiresAtMillis = expiresAtMillis;
+            this.loadedAt = loadedAt;
+        }
+    }
+} // End of class
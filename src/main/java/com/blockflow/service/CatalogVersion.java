@@ -0,0 +1,65 @@
+package com.blockflow.service;
+
+import com.blockflow.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the product catalog as seen by clients, used for ETag and
+ * Last-Modified on the catalog read endpoints.
+ *
+ * The version moves forward after every committed product change and every
+ * stock write-back from StockLedger. Controllers read it before querying, so a
+ * response is never older than the tag it is sent with.
+ */
+@Component
+public class CatalogVersion {
+
+    // Distinguishes tags from previous runs, since the counter starts over
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong lastModifiedMillis = new AtomicLong(System.currentTimeMillis());
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        long modified = System.currentTimeMillis();
+        if (event.getProduct() != null && event.getProduct().getUpdatedAt() != null) {
+            modified = Math.max(modified,
+                    event.getProduct().getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        advance(modified);
+    }
+
+    /**
+     * Marks the catalog as changed, e.g. after stock levels were written.
+     */
+    public void advance() {
+        advance(System.currentTimeMillis());
+    }
+
+    /**
+     * Strong ETag for the current version, quoted as sent on the wire.
+     */
+    public String etag() {
+        return "\"" + instance + "-" + version.get() + "\"";
+    }
+
+    public long lastModified() {
+        return lastModifiedMillis.get();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    private void advance(long modifiedMillis) {
+        // Last-Modified first so a reader that sees the new version never
+        // pairs it with the old timestamp
+        lastModifiedMillis.accumulateAndGet(modifiedMillis, Math::max);
+        version.incrementAndGet();
+    }
+} // End of class
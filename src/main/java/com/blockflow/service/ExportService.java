@@ -0,0 +1,251 @@
+package com.blockflow.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Streams whole tables to a client as NDJSON or CSV for the ERP sync.
+ *
+ * Rows are read through a forward-only JDBC cursor with a fixed fetch size and
+ * written out one at a time, so memory use does not grow with the table. On
+ * MySQL the cursor needs useCursorFetch=true in the JDBC URL, otherwise the
+ * driver buffers the whole result.
+ */
+@Service
+@Slf4j
+public class ExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"), CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    // Field names follow the JSON of ProductResponse and Order
+    private static final String[] PRODUCT_FIELDS = { "id", "name", "dimensions", "lengthMm", "heightMm",
+            "thicknessMm", "pricePerUnit", "stockQuantity", "description", "weight", "category", "viewCount",
+            "createdAt", "updatedAt" };
+    private static final String PRODUCT_SQL = "SELECT id, name, dimensions, length_mm, height_mm, thickness_mm, "
+            + "price_per_unit, stock_quantity, description, weight, category, view_count, created_at, updated_at "
+            + "FROM products";
+    private static final String PRODUCT_SINCE = " WHERE updated_at >= ?";
+
+    private static final String[] PRODUCT_DELETION_FIELDS = { "id", "deletedAt" };
+    private static final String PRODUCT_DELETION_SQL = "SELECT product_id AS id, deleted_at FROM product_deletions";
+
+    private static final String[] ORDER_FIELDS = { "id", "orderDate", "productId", "quantity", "totalAmount",
+            "customerName", "status", "userId", "updatedAt" };
+    private static final String ORDER_SQL = "SELECT id, order_date, product_id, quantity, total_amount, "
+            + "customer_name, status, user_id, updated_at FROM orders";
+    private static final String ORDER_SINCE = " WHERE updated_at >= ?";
+
+    private static final String[] ORDER_DELETION_FIELDS = { "id", "deletedAt" };
+    private static final String ORDER_DELETION_SQL = "SELECT order_id AS id, deleted_at FROM order_deletions";
+
+    private static final String DELETION_SINCE = " WHERE deleted_at >= ?";
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, @Value("${blockflow.export.fetch-size:500}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        // Some drivers (PostgreSQL) only use a cursor inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes products ordered by id, optionally only those updated at or after
+     * {@code since}. Returns the number of rows written.
+     */
+    public long exportProducts(LocalDateTime since, Format format, OutputStream out) throws IOException {
+        return export("products", PRODUCT_SQL, PRODUCT_SINCE, PRODUCT_FIELDS, since, format, out);
+    }
+
+    /**
+     * Writes the ids of deleted products, optionally only those deleted at or
+     * after {@code since}. Returns the number of rows written.
+     */
+    public long exportProductDeletions(LocalDateTime since, Format format, OutputStream out) throws IOException {
+        return export("product deletions", PRODUCT_DELETION_SQL, DELETION_SINCE, PRODUCT_DELETION_FIELDS, since, format,
+                out);
+    }
+
+    /**
+     * Writes orders ordered by id, optionally only those placed or changed at
+     * or after {@code since}. Returns the number of rows written.
+     */
+    public long exportOrders(LocalDateTime since, Format format, OutputStream out) throws IOException {
+        return export("orders", ORDER_SQL, ORDER_SINCE, ORDER_FIELDS, since, format, out);
+    }
+
+    /**
+     * Writes the ids of deleted orders, optionally only those deleted at or
+     * after {@code since}. Returns the number of rows written.
+     */
+    public long exportOrderDeletions(LocalDateTime since, Format format, OutputStream out) throws IOException {
+        return export("order deletions", ORDER_DELETION_SQL, DELETION_SINCE, ORDER_DELETION_FIELDS, since, format,
+                out);
+    }
+
+    private long export(String table, String select, String sinceClause, String[] fields, LocalDateTime since,
+            Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        String sql = select + (since != null ? sinceClause : "") + " ORDER BY id";
+        Object[] args = since != null ? new Object[] { Timestamp.valueOf(since) } : new Object[0];
+
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out, fields) : new NdjsonRowWriter(out, fields);
+        long[] rows = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(sql,
+                    (RowCallbackHandler) rs -> {
+                        try {
+                            writer.write(rs);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }, args));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            log.warn("Export of {} aborted after {} rows: {}", table, rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Exported {} {} as {} in {} ms", rows[0], table, format, (System.nanoTime() - start) / 1_000_000);
+        return rows[0];
+    }
+
+    // Timestamps as LocalDateTime, so they serialize like the API's JSON
+    private static Object columnValue(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value;
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final String[] fields;
+        private boolean empty = true;
+
+        private NdjsonRowWriter(OutputStream out, String[] fields) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            // One object per line, separated by a newline instead of a space
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+            this.fields = fields;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < fields.length; i++) {
+                generator.writeFieldName(fields[i]);
+                generator.writeObject(columnValue(rs, i + 1));
+            }
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    private final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final int columns;
+
+        private CsvRowWriter(OutputStream out, String[] fields) throws IOException {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            this.columns = fields.length;
+            writer.write(String.join(",", fields));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = columnValue(rs, i + 1);
+                if (value instanceof LocalDateTime) {
+                    writer.write(objectMapper.convertValue(value, String.class));
+                } else if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180: quote fields containing a delimiter, quote or line break
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+} // End of class
@@ -1,14 +1,21 @@
 package com.blockflow.service;
 
+import com.blockflow.dto.OrderBatchResponse;
+import com.blockflow.dto.OrderSummary;
 import com.blockflow.model.Order;
+import org.springframework.data.domain.Page;
 import java.util.List;
 
 public interface OrderService {
     List<Order> getAllOrders();
 
+    Page<OrderSummary> getOrderSummaries(String sortBy, String direction, int page, int size);
+
     Order getOrderById(Long id);
 
     Order createOrder(Order order);
 
+    OrderBatchResponse createOrders(List<Order> orders);
+
     void deleteOrder(Long id);
 } // End of interface
@@ -0,0 +1,452 @@
+package com.blockflow.service;
+
+import com.blockflow.dto.ProductImportResponse;
+import com.blockflow.dto.ProductImportResult;
+import com.blockflow.dto.ProductRequest;
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.mapper.ProductMapper;
+import com.blockflow.model.Product;
+import com.blockflow.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from a CSV or NDJSON stream.
+ *
+ * The upload is read one row at a time and handled in chunks: the rows of a
+ * chunk are validated against the ProductRequest constraints on a small
+ * dedicated pool, then the valid ones are written in one transaction with
+ * JDBC-batched inserts. A failed chunk does not undo the chunks before it.
+ * With upsert, a row whose name matches exactly one existing product updates
+ * that product instead of creating a new one.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    // CSV header names follow the JSON of ProductRequest; other columns (for
+    // example those of the product export) are ignored
+    private static final Set<String> CSV_FIELDS = Set.of("name", "dimensions", "pricePerUnit", "stockQuantity",
+            "description", "weight");
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate chunkTransaction;
+    private final ThreadPoolExecutor validationExecutor;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public ProductImportService(ProductRepository productRepository, ProductMapper productMapper, Validator validator,
+            ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${blockflow.import.chunk-size:500}") int chunkSize,
+            @Value("${blockflow.import.max-rows:100000}") int maxRows,
+            @Value("${blockflow.import.validation-threads:0}") int validationThreads) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        int poolSize = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.validationExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationExecutor.shutdown();
+    }
+
+    public ProductImportResponse importProducts(InputStream in, ExportService.Format format, boolean upsert)
+            throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowReader rows = format == ExportService.Format.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+
+        List<ProductImportResult> results = new ArrayList<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        ImportRow row;
+        while ((row = rows.next()) != null) {
+            if (row.number > maxRows) {
+                results.add(ProductImportResult.rejected(row.number,
+                        "Import is limited to " + maxRows + " rows; this and later rows were not read"));
+                break;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, upsert, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, upsert, results);
+        }
+
+        int created = 0;
+        int updated = 0;
+        for (ProductImportResult result : results) {
+            if (result.getStatus() == ProductImportResult.Status.CREATED) {
+                created++;
+            } else if (result.getStatus() == ProductImportResult.Status.UPDATED) {
+                updated++;
+            }
+        }
+        int rejected = results.size() - created - updated;
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = results.isEmpty() ? 0 : results.size() / (elapsedNanos / 1_000_000_000.0);
+        log.info("Imported {} rows as {}: {} created, {} updated, {} rejected in {} ms ({} rows/sec)",
+                results.size(), format, created, updated, rejected, elapsedNanos / 1_000_000,
+                Math.round(rowsPerSecond));
+        return new ProductImportResponse(created, updated, rejected, elapsedNanos / 1_000_000, rowsPerSecond,
+                results);
+    }
+
+    private void importChunk(List<ImportRow> chunk, boolean upsert, List<ProductImportResult> results) {
+        validate(chunk);
+        List<ImportRow> valid = chunk.stream().filter(r -> r.problem == null).collect(Collectors.toList());
+        Map<Long, ProductImportResult> saved = new HashMap<>();
+        if (!valid.isEmpty()) {
+            try {
+                chunkTransaction.executeWithoutResult(status -> save(valid, upsert, saved));
+            } catch (RuntimeException e) {
+                log.warn("Import chunk of rows {}-{} failed: {}", valid.get(0).number,
+                        valid.get(valid.size() - 1).number, e.getMessage());
+                saved.clear();
+                valid.forEach(r -> r.problem = "Chunk could not be saved: " + e.getMessage());
+            }
+        }
+        for (ImportRow row : chunk) {
+            results.add(row.problem != null ? ProductImportResult.rejected(row.number, row.problem)
+                    : saved.get(row.number));
+        }
+    }
+
+    // Bean validation of the chunk, split into one slice per pool thread
+    private void validate(List<ImportRow> chunk) {
+        int threads = validationExecutor.getCorePoolSize();
+        int sliceSize = (chunk.size() + threads - 1) / threads;
+        List<Callable<Void>> tasks = new ArrayList<>(threads);
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<ImportRow> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            tasks.add(() -> {
+                slice.stream().filter(r -> r.problem == null).forEach(this::validate);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> done : validationExecutor.invokeAll(tasks)) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import validation failed", e.getCause());
+        }
+    }
+
+    private void validate(ImportRow row) {
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(row.request);
+        if (!violations.isEmpty()) {
+            row.problem = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+    }
+
+    private void save(List<ImportRow> rows, boolean upsert, Map<Long, ProductImportResult> saved) {
+        // name -> products with that name, including those created earlier in this chunk
+        Map<String, List<Product>> byName = new HashMap<>();
+        if (upsert) {
+            Set<String> names = rows.stream().map(r -> r.request.getName()).collect(Collectors.toSet());
+            productRepository.findByNameIn(names)
+                    .forEach(p -> byName.computeIfAbsent(p.getName(), n -> new ArrayList<>()).add(p));
+        }
+
+        // By identity: Product's equals and hashCode cover every (still changing) field
+        Map<Product, ImportRow> created = new IdentityHashMap<>();
+        Set<Product> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Product> toSave = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            List<Product> existing = byName.getOrDefault(row.request.getName(), List.of());
+            if (existing.size() > 1) {
+                row.problem = existing.size() + " products are named \"" + row.request.getName()
+                        + "\"; upsert needs a unique name";
+                continue;
+            }
+            Product product;
+            if (existing.isEmpty()) {
+                product = productMapper.toEntity(row.request);
+                created.put(product, row);
+                if (upsert) {
+                    byName.put(product.getName(), new ArrayList<>(List.of(product)));
+                }
+            } else {
+                product = existing.get(0);
+                productMapper.updateEntityFromRequest(product, row.request);
+            }
+            row.product = product;
+            if (seen.add(product)) {
+                toSave.add(product);
+            }
+        }
+
+        // Sequence ids let Hibernate send the inserts as JDBC batches on flush
+        productRepository.saveAll(toSave);
+        productRepository.flush();
+        for (ImportRow row : rows) {
+            if (row.problem != null) {
+                continue;
+            }
+            boolean isNew = created.get(row.product) == row;
+            ProductImportResult.Status status = isNew ? ProductImportResult.Status.CREATED
+                    : ProductImportResult.Status.UPDATED;
+            saved.put(row.number, ProductImportResult.saved(row.number, status, row.product.getId()));
+        }
+        for (Product product : toSave) {
+            ProductChangedEvent.Type type = created.containsKey(product) ? ProductChangedEvent.Type.CREATED
+                    : ProductChangedEvent.Type.UPDATED;
+            eventPublisher.publishEvent(ProductChangedEvent.saved(type, product));
+        }
+    }
+
+    private static final class ImportRow {
+        private final long number;
+        private final ProductRequest request;
+        private String problem;
+        private Product product;
+
+        private ImportRow(long number, ProductRequest request, String problem) {
+            this.number = number;
+            this.request = request;
+            this.problem = problem;
+        }
+    }
+
+    private interface RowReader {
+        // Null at the end of the upload
+        ImportRow next() throws IOException;
+    }
+
+    private final class NdjsonRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long number;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            number++;
+            try {
+                ProductRequest request = objectMapper.readValue(line, ProductRequest.class);
+                // A literal null line reads as a null request
+                return request != null ? new ImportRow(number, request, null)
+                        : new ImportRow(number, null, "Expected a JSON object, found null");
+            } catch (JsonProcessingException e) {
+                return new ImportRow(number, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class CsvRowReader implements RowReader {
+        private final CsvRecordReader records;
+        private Map<String, Integer> columns;
+        private long number;
+
+        private CsvRowReader(Reader reader) {
+            this.records = new CsvRecordReader(reader);
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (columns == null) {
+                List<String> header = records.next();
+                if (header == null) {
+                    return null;
+                }
+                columns = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    String name = header.get(i).trim();
+                    if (CSV_FIELDS.contains(name)) {
+                        columns.put(name, i);
+                    }
+                }
+                if (!columns.containsKey("name")) {
+                    throw new IllegalArgumentException("CSV header must contain at least a name column, found "
+                            + header);
+                }
+            }
+            List<String> record;
+            do {
+                record = records.next();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+            number++;
+            try {
+                ProductRequest request = ProductRequest.builder()
+                        .name(cell(record, "name"))
+                        .dimensions(cell(record, "dimensions"))
+                        .pricePerUnit(decimal(record, "pricePerUnit"))
+                        .stockQuantity(integer(record, "stockQuantity"))
+                        .description(cell(record, "description"))
+                        .weight(decimal(record, "weight"))
+                        .build();
+                return new ImportRow(number, request, null);
+            } catch (NumberFormatException e) {
+                return new ImportRow(number, null, e.getMessage());
+            }
+        }
+
+        private String cell(List<String> record, String field) {
+            Integer index = columns.get(field);
+            if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+                return null;
+            }
+            return record.get(index);
+        }
+
+        private BigDecimal decimal(List<String> record, String field) {
+            String value = cell(record, field);
+            try {
+                return value != null ? new BigDecimal(value.trim()) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(field + ": not a number: " + value);
+            }
+        }
+
+        private Integer integer(List<String> record, String field) {
+            String value = cell(record, field);
+            try {
+                return value != null ? Integer.valueOf(value.trim()) : null;
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException(field + ": not a whole number: " + value);
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 records: comma separated, optionally double-quoted fields in
+     * which quotes are doubled and line breaks are allowed.
+     */
+    private static final class CsvRecordReader {
+        private final Reader reader;
+        private int peeked = -2;
+
+        private CsvRecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("CSV ends inside a quoted field");
+                    }
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (peeked != -2) {
+                int c = peeked;
+                peeked = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = reader.read();
+            }
+            return peeked;
+        }
+    }
+} // End of class
@@ -0,0 +1,429 @@
+package com.blockflow.service;
+
+import com.blockflow.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The JSON of ProductResponse, serialized once and kept outside the Java heap,
+ * so repeated catalog reads write bytes instead of rebuilding and
+ * re-serializing the same objects.
+ *
+ * GET /api/products/{id}/view writes a cached entry as is, without loading
+ * the product. List endpoints still query and build their ProductResponse
+ * page; only the serialization of each cached element is skipped, its bytes
+ * being copied instead (see ProductJsonCacheConfig).
+ *
+ * The bytes live in direct ByteBuffer slabs filled one after another as a
+ * ring; when the ring is full the oldest slab is reused and everything in it
+ * drops out. The index from product id to slab position is a set of
+ * primitive arrays, a few bytes of heap per entry however large the catalog.
+ *
+ * Every entry carries the version it was read at: the invalidation sequence
+ * taken before the product was loaded. Product writes and stock write-backs
+ * invalidate their ids, which replaces the entry with a tombstone holding the
+ * invalidation's sequence number. A load older than the tombstone cannot be
+ * stored, so a load that raced a write cannot put stale JSON back, and other
+ * ids are not affected.
+ */
+@Component
+@Slf4j
+public class ProductJsonCache {
+
+    private static final int SEGMENTS = 16;
+
+    // Entry position packed in one long: slab, offset in the slab, length
+    private static final int OFFSET_BITS = 28;
+    private static final int LENGTH_BITS = 24;
+    private static final int MAX_SLABS = 1 << (64 - OFFSET_BITS - LENGTH_BITS);
+    // Position of an invalidated id; real positions never have the sign bit set
+    private static final long TOMBSTONE = -1L;
+
+    private final boolean enabled;
+    private final int slabBytes;
+
+    private final ByteBuffer[] slabs;
+    // Incremented each time a slab is reused; entries remember the cycle they were written in
+    private final AtomicIntegerArray slabCycles;
+    private final Object allocationLock = new Object();
+    private int currentSlab = -1;
+    private int slabPosition;
+
+    private final Segment[] segments;
+
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    // Version the current request reads at, set by ReadScope
+    private final ThreadLocal<Long> readVersion = new ThreadLocal<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong recycledSlabs = new AtomicLong();
+
+    public ProductJsonCache(@Value("${blockflow.product-json-cache.enabled:true}") boolean enabled,
+            @Value("${blockflow.product-json-cache.capacity-mb:64}") int capacityMb,
+            @Value("${blockflow.product-json-cache.slab-mb:4}") int slabMb,
+            @Value("${blockflow.product-json-cache.max-entries:131072}") int maxEntries) {
+        if (slabMb < 1 || slabMb > (1 << OFFSET_BITS) >> 20 || capacityMb < slabMb || maxEntries < SEGMENTS) {
+            throw new IllegalArgumentException("blockflow.product-json-cache needs 1 <= slab-mb <= 256, "
+                    + "capacity-mb >= slab-mb and max-entries >= " + SEGMENTS);
+        }
+        int slabCount = Math.min(capacityMb / slabMb, MAX_SLABS);
+        this.enabled = enabled;
+        this.slabBytes = slabMb << 20;
+        // Slabs are allocated as the ring first reaches them
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabCycles = new AtomicIntegerArray(slabCount);
+        this.segments = new Segment[enabled ? SEGMENTS : 0];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(maxEntries / SEGMENTS);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    /**
+     * The cached JSON of a product, or null when it is not cached or no
+     * longer current.
+     */
+    public byte[] get(long productId) {
+        if (!enabled || productId <= 0) {
+            return null;
+        }
+        Segment segment = segmentFor(productId);
+        long position;
+        int cycle;
+        synchronized (segment) {
+            int slot = segment.find(productId);
+            if (slot < 0 || segment.positions[slot] == TOMBSTONE) {
+                misses.increment();
+                return null;
+            }
+            position = segment.positions[slot];
+            cycle = segment.cycles[slot];
+        }
+        int slab = (int) (position >>> (OFFSET_BITS + LENGTH_BITS));
+        if (slabCycles.get(slab) != cycle) {
+            misses.increment();
+            return null;
+        }
+        byte[] json = new byte[(int) (position & ((1L << LENGTH_BITS) - 1))];
+        slabs[slab].get((int) (position >>> LENGTH_BITS) & ((1 << OFFSET_BITS) - 1), json);
+        // The slab may have been reused while copying; the bytes only count if
+        // its cycle is still the one the entry was written in
+        VarHandle.acquireFence();
+        if (slabCycles.get(slab) != cycle) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return json;
+    }
+
+    /**
+     * Stores the JSON of a product loaded at the given version, unless the
+     * product was invalidated since.
+     */
+    public void put(long productId, long version, byte[] json) {
+        if (!enabled || productId <= 0 || json.length > slabBytes || json.length >= 1 << LENGTH_BITS) {
+            return;
+        }
+        Segment segment = segmentFor(productId);
+        synchronized (segment) {
+            // Checked again when the entry goes in; this saves copying bytes that cannot be kept
+            if (!segment.accepts(productId, version)) {
+                rejected.increment();
+                return;
+            }
+        }
+        long position;
+        int cycle;
+        synchronized (allocationLock) {
+            if (currentSlab < 0 || slabPosition + json.length > slabBytes) {
+                nextSlab();
+            }
+            position = ((long) currentSlab << (OFFSET_BITS + LENGTH_BITS))
+                    | ((long) slabPosition << LENGTH_BITS) | json.length;
+            cycle = slabCycles.get(currentSlab);
+            slabs[currentSlab].put(slabPosition, json);
+            slabPosition += json.length;
+        }
+        synchronized (segment) {
+            if (!segment.put(productId, position, version, cycle, slabCycles)) {
+                rejected.increment();
+                return;
+            }
+        }
+        stored.increment();
+    }
+
+    /**
+     * Drops the cached JSON of a product after it changed; loads that started
+     * before this call can no longer store their result.
+     */
+    public void invalidate(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        long sequence = invalidationSequence.incrementAndGet();
+        Segment segment = segmentFor(productId);
+        synchronized (segment) {
+            segment.invalidate(productId, sequence, slabCycles);
+        }
+    }
+
+    /**
+     * Version for a load that starts now, to pass to put.
+     */
+    public long readVersion() {
+        return invalidationSequence.get();
+    }
+
+    /**
+     * Marks the current thread as reading the catalog from now on, so
+     * responses it serializes may be stored at this version. Close it when the
+     * request is done.
+     */
+    public ReadScope openReadScope() {
+        readVersion.set(readVersion());
+        return readVersion::remove;
+    }
+
+    /**
+     * Version of the read scope open on this thread, or -1 outside one.
+     */
+    public long currentReadVersion() {
+        Long version = readVersion.get();
+        return version != null ? version : -1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getStoredCount() {
+        return stored.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getRecycledSlabs() {
+        return recycledSlabs.get();
+    }
+
+    public int getEntries() {
+        int entries = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.size - segment.tombstones;
+            }
+        }
+        return entries;
+    }
+
+    public long getOffHeapBytes() {
+        synchronized (allocationLock) {
+            return (long) Math.min(currentSlab + 1 + recycledSlabs.get(), slabs.length) * slabBytes;
+        }
+    }
+
+    // Caller holds allocationLock
+    private void nextSlab() {
+        currentSlab = (currentSlab + 1) % slabs.length;
+        slabPosition = 0;
+        if (slabs[currentSlab] == null) {
+            slabs[currentSlab] = ByteBuffer.allocateDirect(slabBytes);
+            return;
+        }
+        // Before any new bytes go in, so readers of the old entries notice
+        slabCycles.incrementAndGet(currentSlab);
+        if (recycledSlabs.incrementAndGet() == 1) {
+            log.info("Product JSON cache is full, reusing the oldest slabs ({} MB off-heap)",
+                    (long) slabs.length * slabBytes >> 20);
+        }
+    }
+
+    private Segment segmentFor(long productId) {
+        return segments[(int) (mix(productId) >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Open-addressing table of one segment, linear probing with backward-shift
+     * deletion. Holds entries and the tombstones of invalidated ids; both
+     * count towards maxSize. Guarded by synchronizing on the segment.
+     */
+    private static final class Segment {
+        private final long[] ids;
+        private final long[] positions;
+        // Load version of an entry, invalidation sequence of a tombstone
+        private final long[] versions;
+        private final int[] cycles;
+        private final int mask;
+        private final int maxSize;
+        private int size;
+        private int tombstones;
+        // Highest version dropped from the table to make room; older loads
+        // cannot be checked against what was dropped, so they are refused
+        private long floor;
+
+        private Segment(int maxSize) {
+            int capacity = Integer.highestOneBit(Math.max(maxSize, 2) * 2 - 1) << 1;
+            this.ids = new long[capacity];
+            this.positions = new long[capacity];
+            this.versions = new long[capacity];
+            this.cycles = new int[capacity];
+            this.mask = capacity - 1;
+            this.maxSize = maxSize;
+        }
+
+        private int home(long id) {
+            return (int) mix(id) & mask;
+        }
+
+        private int find(long id) {
+            for (int slot = home(id); ids[slot] != 0; slot = (slot + 1) & mask) {
+                if (ids[slot] == id) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        // Whether a load of the id at this version may still be stored
+        private boolean accepts(long id, long version) {
+            if (floor > version) {
+                return false;
+            }
+            int slot = find(id);
+            // Versions only grow per slot, so an older load never replaces a
+            // newer entry or the tombstone of a later invalidation
+            return slot < 0 || versions[slot] <= version;
+        }
+
+        private boolean put(long id, long position, long version, int cycle, AtomicIntegerArray slabCycles) {
+            if (!accepts(id, version)) {
+                return false;
+            }
+            int slot = find(id);
+            if (slot < 0) {
+                if (size >= maxSize && (purge(slabCycles) == 0 || floor > version)) {
+                    return false;
+                }
+                slot = insert(id);
+            } else if (positions[slot] == TOMBSTONE) {
+                tombstones--;
+            }
+            positions[slot] = position;
+            versions[slot] = version;
+            cycles[slot] = cycle;
+            return true;
+        }
+
+        private void invalidate(long id, long sequence, AtomicIntegerArray slabCycles) {
+            int slot = find(id);
+            if (slot < 0) {
+                if (size >= maxSize && purge(slabCycles) == 0) {
+                    // No room for a tombstone: refuse every load that started before this
+                    floor = Math.max(floor, sequence);
+                    return;
+                }
+                slot = insert(id);
+                versions[slot] = sequence;
+                tombstones++;
+            } else {
+                if (positions[slot] != TOMBSTONE) {
+                    tombstones++;
+                }
+                // Invalidations of one id may take the lock out of sequence order
+                versions[slot] = Math.max(versions[slot], sequence);
+            }
+            positions[slot] = TOMBSTONE;
+            cycles[slot] = 0;
+        }
+
+        private int insert(long id) {
+            int slot = home(id);
+            while (ids[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            size++;
+            return slot;
+        }
+
+        // Drops tombstones and the entries whose slab has been reused since they were written
+        private int purge(AtomicIntegerArray slabCycles) {
+            int purged = 0;
+            for (int slot = 0; slot < ids.length;) {
+                if (ids[slot] != 0 && (positions[slot] == TOMBSTONE
+                        || slabCycles.get((int) (positions[slot] >>> (OFFSET_BITS + LENGTH_BITS))) != cycles[slot])) {
+                    floor = Math.max(floor, versions[slot]);
+                    if (positions[slot] == TOMBSTONE) {
+                        tombstones--;
+                    }
+                    // Shifting may move a later entry into this slot; look at it again
+                    removeAt(slot);
+                    purged++;
+                } else {
+                    slot++;
+                }
+            }
+            return purged;
+        }
+
+        private void removeAt(int slot) {
+            int hole = slot;
+            for (int next = (hole + 1) & mask; ids[next] != 0; next = (next + 1) & mask) {
+                int home = home(ids[next]);
+                // Move the entry back unless its home lies cyclically after the hole
+                boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+                if (movable) {
+                    ids[hole] = ids[next];
+                    positions[hole] = positions[next];
+                    versions[hole] = versions[next];
+                    cycles[hole] = cycles[next];
+                    hole = next;
+                }
+            }
+            ids[hole] = 0;
+            size--;
+        }
+    }
+
+    /**
+     * Ends a read scope opened by openReadScope.
+     */
+    @FunctionalInterface
+    public interface ReadScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+} // End of class
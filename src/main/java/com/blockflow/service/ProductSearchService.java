@@ -1,41 +1,65 @@
 package com.blockflow.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import com.blockflow.model.Product;
+import com.blockflow.dto.DimensionFilter;
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.dto.ProductSuggestion;
 import com.blockflow.repository.ProductRepository;
+import com.blockflow.search.IndexedProduct;
+import com.blockflow.search.ProductSearchIndex;
+import com.blockflow.search.ProductSuggestIndex;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
 @Service
+@Timed(value = "blockflow.product.search", percentiles = { 0.5, 0.99 })
 public class ProductSearchService {
 
     private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductViewCounter productViewCounter;
+    private final ProductSuggestIndex productSuggestIndex;
 
-    public ProductSearchService(ProductRepository productRepository) {
+    public ProductSearchService(ProductRepository productRepository, ProductSearchIndex productSearchIndex,
+            ProductViewCounter productViewCounter, ProductSuggestIndex productSuggestIndex) {
         this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productViewCounter = productViewCounter;
+        this.productSuggestIndex = productSuggestIndex;
     }
 
-    // ✅ Search by name or description
-    public List<Product> searchByKeyword(String keyword) {
+    // Autocomplete for partial, possibly misspelled names; served entirely
+    // from memory
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        return productSuggestIndex.suggest(prefix, limit);
+    }
+
+    // ✅ Search by name or description, one page at a time.
+    // When countTotal is false a blank query skips the COUNT(*) and returns a Slice.
+    public Slice<ProductResponse> searchByKeyword(String keyword, int page, int limit, boolean countTotal) {
+        Pageable pageable = PageRequest.of(page, limit, Sort.by("id"));
         if (keyword == null || keyword.trim().isEmpty()) {
-            return productRepository.findAll();
+            return countTotal ? productRepository.findAllResponses(pageable) : productRepository.findResponseSlice(pageable);
+        }
+        if (!productSearchIndex.isReady()) {
+            return productRepository.searchByNameOrDescription(keyword, pageable);
         }
-        // Note: The repository method uses LIKE %keyword%, so we just pass the keyword
-        // actually the repo query uses CONCAT('%', :keyword, '%'), so we pass the raw
-        // keyword.
-        // Wait, the user's code did: String searchTerm = "%" + keyword.toLowerCase() +
-        // "%";
-        // My repo query is: LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))
-        // So I should just pass the keyword.
-        return productRepository.searchByNameOrDescription(keyword);
+        return pageOf(productSearchIndex.search(keyword), pageable);
     }
 
     // ✅ Filter by category and price range
-    public Page<Product> filterByCategory(String category, Double minPrice, Double maxPrice, int page, int limit) {
+    public Page<ProductResponse> filterByCategory(String category, Double minPrice, Double maxPrice, int page, int limit) {
         Pageable pageable = PageRequest.of(page, limit);
         BigDecimal min = BigDecimal.valueOf(minPrice != null ? minPrice : 0.0);
         BigDecimal max = BigDecimal.valueOf(maxPrice != null ? maxPrice : Double.MAX_VALUE);
@@ -48,7 +72,7 @@ public class ProductSearchService {
     }
 
     // ✅ Sort by different criteria
-    public Page<Product> sortProducts(String sortBy, int page, int limit) {
+    public Page<ProductResponse> sortProducts(String sortBy, int page, int limit) {
         Pageable pageable;
 
         switch (sortBy) {
@@ -68,22 +92,27 @@ public class ProductSearchService {
                 pageable = PageRequest.of(page, limit, Sort.by("id").descending());
         }
 
-        return productRepository.findAll(pageable);
+        return productRepository.findAllResponses(pageable);
     }
 
-    // ✅ Search + Filter + Sort combined
-    public Page<Product> advancedSearch(String keyword, String category, Double minPrice, Double maxPrice,
-            String sortBy, int page, int limit) {
+    // ✅ Search + Filter + Sort combined.
+    // Dimension ranges are applied in the database (indexed columns), or to the
+    // in-memory keyword hits when the search index answers the query.
+    public Page<ProductResponse> advancedSearch(String keyword, String category, Double minPrice, Double maxPrice,
+            DimensionFilter dimensions, String sortBy, int page, int limit) {
         Pageable pageable = createPageable(sortBy, page, limit);
         BigDecimal min = BigDecimal.valueOf(minPrice != null ? minPrice : 0.0);
         BigDecimal max = BigDecimal.valueOf(maxPrice != null ? maxPrice : Double.MAX_VALUE);
 
-        if (keyword != null && !keyword.isEmpty()) {
-            String searchTerm = "%" + keyword.toLowerCase() + "%";
+        if (keyword != null && !keyword.isEmpty() && productSearchIndex.isReady()) {
+            return searchIndex(keyword, category, min, max, dimensions, sortBy, pageable);
+        } else if (!dimensions.isEmpty()) {
+            return productRepository.findResponsesByFilter(keyword, category, min, max, dimensions, pageable);
+        } else if (keyword != null && !keyword.isEmpty()) {
             if (category != null && !category.isEmpty()) {
-                return productRepository.advancedSearch(searchTerm, category, min, max, pageable);
+                return productRepository.advancedSearch(keyword, category, min, max, pageable);
             } else {
-                return productRepository.searchWithPriceFilter(searchTerm, min, max, pageable);
+                return productRepository.searchWithPriceFilter(keyword, min, max, pageable);
             }
         } else {
             if (category != null && !category.isEmpty()) {
@@ -94,6 +123,69 @@ public class ProductSearchService {
         }
     }
 
+    // Keyword matching and filtering run against the in-memory index; only the
+    // requested page of products is read from the database.
+    private Page<ProductResponse> searchIndex(String keyword, String category, BigDecimal min, BigDecimal max,
+            DimensionFilter dimensions, String sortBy, Pageable pageable) {
+        boolean filterCategory = category != null && !category.isEmpty();
+        List<IndexedProduct> matches = productSearchIndex.search(keyword).stream()
+                .filter(p -> !filterCategory || category.equals(p.getCategory()))
+                .filter(p -> p.getPricePerUnit() != null
+                        && p.getPricePerUnit().compareTo(min) >= 0
+                        && p.getPricePerUnit().compareTo(max) <= 0)
+                .filter(p -> dimensions.matches(p.getLengthMm(), p.getHeightMm(), p.getThicknessMm(),
+                        p.getVolumeMm3()))
+                .collect(Collectors.toList());
+
+        Comparator<IndexedProduct> order = indexOrder(sortBy);
+        if (order != null) {
+            matches.sort(order);
+        }
+
+        return pageOf(matches, pageable);
+    }
+
+    private Page<ProductResponse> pageOf(List<IndexedProduct> matches, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<Long> ids = matches.subList(from, to).stream()
+                .map(IndexedProduct::getId)
+                .collect(Collectors.toList());
+        return new PageImpl<>(findAllInOrder(ids), pageable, matches.size());
+    }
+
+    // Mirrors createPageable; null keeps the index's relevance order.
+    private Comparator<IndexedProduct> indexOrder(String sortBy) {
+        Comparator<IndexedProduct> byIdDesc = Comparator.comparing(IndexedProduct::getId).reversed();
+        switch (sortBy) {
+            case "relevance":
+                return null;
+            case "price_asc":
+                return Comparator.comparing(IndexedProduct::getPricePerUnit).thenComparing(byIdDesc);
+            case "price_desc":
+                return Comparator.comparing(IndexedProduct::getPricePerUnit).reversed().thenComparing(byIdDesc);
+            case "newest":
+                return Comparator.comparing(IndexedProduct::getCreatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())).thenComparing(byIdDesc);
+            case "popular":
+                return Comparator.comparingLong(IndexedProduct::getViewCount).reversed().thenComparing(byIdDesc);
+            default:
+                return byIdDesc;
+        }
+    }
+
+    private List<ProductResponse> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductResponse> byId = new HashMap<>();
+        productRepository.findResponsesByIdIn(ids).forEach(p -> byId.put(p.getId(), p));
+        return ids.stream()
+                .map(byId::get)
+                .filter(p -> p != null)
+                .collect(Collectors.toList());
+    }
+
     private Pageable createPageable(String sortBy, int page, int limit) {
         switch (sortBy) {
             case "price_asc":
@@ -109,14 +201,20 @@ public class ProductSearchService {
         }
     }
 
-    // ✅ Increment view count when product is viewed
+    /**
+     * True only when the index is built and holds the product, so callers can
+     * skip the database lookup.
+     */
+    public boolean isIndexed(Long productId) {
+        return productSearchIndex.isReady() && productSearchIndex.contains(productId);
+    }
+
+    // ✅ Increment view count when product is viewed.
+    // Buffered in memory and written to the database in batches.
     public void incrementViewCount(Long productId) {
         if (productId == null) {
             throw new IllegalArgumentException("Product ID cannot be null");
         }
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        product.setViewCount(product.getViewCount() + 1);
-        productRepository.save(product);
+        productViewCounter.increment(productId);
     }
 }
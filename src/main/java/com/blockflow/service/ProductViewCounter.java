@@ -0,0 +1,162 @@
+package com.blockflow.service;
+
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.search.ProductSearchIndex;
+import com.blockflow.search.ProductSuggestIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for product view counts.
+ *
+ * Views are added to a striped LongAdder per product and written out on a
+ * schedule as one batch of relative UPDATE statements, so the request path
+ * never touches the database and concurrent views are never lost. Products
+ * without views for a whole flush interval are dropped from the buffer.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewCounter {
+
+    private static final String INCREMENT_SQL = "UPDATE products SET view_count = view_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicLong flushedViews = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+
+    public void increment(Long productId) {
+        LongAdder views = pending.computeIfAbsent(productId, id -> new LongAdder());
+        views.increment();
+        if (pending.get(productId) != views) {
+            // A flush retired this adder meanwhile; whichever of us drains it
+            // second gets nothing, so the view is carried over exactly once
+            carryOver(productId, views.sumThenReset());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blockflow.views.flush-interval-ms:5000}")
+    public void flush() {
+        // A lock rather than synchronized: the batch runs JDBC, which would pin
+        // the carrier when running on a virtual thread
+        flushLock.lock();
+        try {
+            doFlush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void doFlush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            // Each stripe is reset atomically, so views racing with the flush
+            // simply land in the next batch.
+            long delta = entry.getValue().sumThenReset();
+            if (delta == 0 && pending.remove(entry.getKey(), entry.getValue())) {
+                // Idle for a whole interval: stop tracking the product, keeping
+                // views that raced with the removal
+                delta = entry.getValue().sumThenReset();
+            }
+            if (delta != 0) {
+                batch.add(new Object[] { delta, entry.getKey() });
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(INCREMENT_SQL, batch);
+        } catch (RuntimeException e) {
+            failedFlushCount.incrementAndGet();
+            log.warn("Failed to flush {} product view counts, will retry: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                carryOver((Long) row[1], (Long) row[0]);
+            }
+            return;
+        }
+
+        // The cached Product entities are left alone: view_count is not
+        // updatable through them and is in no cached response, so evicting
+        // would only make the most viewed products miss the cache
+        long views = 0;
+        for (Object[] row : batch) {
+            productSearchIndex.recordViews((Long) row[1], (Long) row[0]);
+            productSuggestIndex.recordViews((Long) row[1], (Long) row[0]);
+            views += (Long) row[0];
+        }
+        flushedViews.addAndGet(views);
+        flushCount.incrementAndGet();
+        log.debug("Flushed {} views for {} products", views, batch.size());
+    }
+
+    private void carryOver(Long productId, long views) {
+        if (views != 0) {
+            pending.computeIfAbsent(productId, id -> new LongAdder()).add(views);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} pending product views before shutdown", getPendingViews());
+        flush();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            pending.remove(event.getProductId());
+        }
+    }
+
+    /**
+     * Views counted but not yet written to the database.
+     */
+    public long getPendingViews() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Number of products currently tracked by the buffer.
+     */
+    public int getTrackedProducts() {
+        return pending.size();
+    }
+
+    public long getFlushedViews() {
+        return flushedViews.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+} // End of class
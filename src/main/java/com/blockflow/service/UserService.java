@@ -1,22 +1,56 @@
 package com.blockflow.service;
 
+import com.blockflow.dto.UserSummary;
 import com.blockflow.model.User;
 import com.blockflow.repository.UserRepository;
+import com.blockflow.security.TokenPrincipalCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 @Service
 @SuppressWarnings("null")
 public class UserService {
 
+    // Sort keys accepted by the admin user listing
+    private static final Map<String, String> SUMMARY_SORT_PROPERTIES = Map.of(
+            "id", "id",
+            "username", "username",
+            "email", "email",
+            "role", "role",
+            "enabled", "enabled",
+            "created", "createdAt");
+
     private final UserRepository userRepository;
+    private final TokenPrincipalCache tokenPrincipalCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, TokenPrincipalCache tokenPrincipalCache) {
         this.userRepository = userRepository;
+        this.tokenPrincipalCache = tokenPrincipalCache;
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public Page<UserSummary> getUserSummaries(User.Role role, Boolean enabled, String sortBy, String direction,
+            int page, int size) {
+        String property = SUMMARY_SORT_PROPERTIES.get(sortBy);
+        if (property == null) {
+            throw new IllegalArgumentException("Unsupported sort: " + sortBy + ", expected one of "
+                    + new TreeSet<>(SUMMARY_SORT_PROPERTIES.keySet()));
+        }
+        Sort sort = Sort.by(Sort.Direction.fromString(direction), property);
+        if (!"id".equals(property)) {
+            // Stable paging when the sort key has duplicates
+            sort = sort.and(Sort.by(Sort.Direction.ASC, "id"));
+        }
+        return userRepository.findSummaries(role, enabled, PageRequest.of(page, size, sort));
     }
 
     public User getUserById(Long id) {
@@ -24,11 +58,78 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    // Cached principals are dropped after the write so role and enabled
+    // changes apply to the user's next request.
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        tokenPrincipalCache.invalidateUser(saved.getId());
+        return saved;
     }
 
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        tokenPrincipalCache.invalidateUser(id);
+    }
+
+    /**
+     * Enables or disables the given users with one UPDATE. Returns how many
+     * actually changed; unknown ids and users already in that state are skipped.
+     */
+    @Transactional
+    public int setEnabled(Collection<Long> ids, boolean enabled) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> changed = userRepository.findIdsWithEnabledOtherThan(ids, enabled);
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        int updated = userRepository.updateEnabled(changed, enabled);
+        invalidateTokensAfterCommit(changed);
+        return updated;
+    }
+
+    /**
+     * Gives the given users the role with one UPDATE. Returns how many
+     * actually changed.
+     */
+    @Transactional
+    public int setRole(Collection<Long> ids, User.Role role) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> changed = userRepository.findIdsWithRoleOtherThan(ids, role);
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        int updated = userRepository.updateRole(changed, role);
+        invalidateTokensAfterCommit(changed);
+        return updated;
+    }
+
+    /**
+     * Demotes every admin except the given ones (which must not be empty)
+     * with one UPDATE. Returns how many were demoted.
+     */
+    @Transactional
+    public int demoteAdminsExcept(Collection<Long> keepIds) {
+        List<Long> demoted = userRepository.findIdsWithRoleExcept(User.Role.ADMIN, keepIds);
+        if (demoted.isEmpty()) {
+            return 0;
+        }
+        int updated = userRepository.updateRole(demoted, User.Role.USER);
+        invalidateTokensAfterCommit(demoted);
+        return updated;
+    }
+
+    // Not before the commit: a request in between would cache the old
+    // role or enabled flag again
+    private void invalidateTokensAfterCommit(Collection<Long> userIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenPrincipalCache.invalidateUsers(userIds);
+            }
+        });
     }
 } // End of class
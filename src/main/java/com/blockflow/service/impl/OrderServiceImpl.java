@@ -1,27 +1,67 @@
 package com.blockflow.service.impl;
 
+import com.blockflow.dto.OrderBatchResponse;
+import com.blockflow.dto.OrderLineResult;
+import com.blockflow.dto.OrderSummary;
+import com.blockflow.exception.InsufficientStockException;
 import com.blockflow.exception.ResourceNotFoundException;
+import com.blockflow.inventory.StockLedger;
 import com.blockflow.model.Order;
 import com.blockflow.model.Product;
+import com.blockflow.reporting.SalesRollups;
 import com.blockflow.repository.OrderRepository;
 import com.blockflow.repository.ProductRepository;
 import com.blockflow.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
+    // Sort keys accepted by the admin listing; "u." refers to the joined user
+    private static final Map<String, String> SUMMARY_SORT_PROPERTIES = Map.of(
+            "id", "id",
+            "date", "orderDate",
+            "amount", "totalAmount",
+            "quantity", "quantity",
+            "status", "status",
+            "customer", "customerName",
+            "product", "productId",
+            "username", "u.username");
+
+    private static final String STORED_ORDER_SQL = "SELECT product_id, quantity, status, total_amount, order_date "
+            + "FROM orders WHERE id = ?";
+    private static final String RECORD_DELETION_SQL = "INSERT INTO order_deletions (order_id, deleted_at) "
+            + "VALUES (?, ?)";
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final SalesRollups salesRollups;
 
     @Override
     @Transactional(readOnly = true)
@@ -30,6 +70,22 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderSummary> getOrderSummaries(String sortBy, String direction, int page, int size) {
+        String property = SUMMARY_SORT_PROPERTIES.get(sortBy);
+        if (property == null) {
+            throw new IllegalArgumentException("Unsupported sort: " + sortBy + ", expected one of "
+                    + new TreeSet<>(SUMMARY_SORT_PROPERTIES.keySet()));
+        }
+        Sort sort = Sort.by(Sort.Direction.fromString(direction), property);
+        if (!"id".equals(property)) {
+            // Stable paging when the sort key has duplicates
+            sort = sort.and(Sort.by(Sort.Direction.DESC, "id"));
+        }
+        return orderRepository.findSummaries(PageRequest.of(page, size, sort));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Order getOrderById(Long id) {
@@ -43,6 +99,9 @@ public class OrderServiceImpl implements OrderService {
     public Order createOrder(Order order) {
         log.info("Creating new order for customer: {}", order.getCustomerName());
 
+        Order previous = order.getId() != null ? storedOrder(order.getId()) : null;
+        adjustStock(order, previous);
+
         if (order.getTotalAmount() == null) {
             Product product = productRepository.findById(Objects.requireNonNull(order.getProductId()))
                     .orElseThrow(
@@ -52,7 +111,140 @@ public class OrderServiceImpl implements OrderService {
             order.setTotalAmount(total);
         }
 
-        return orderRepository.save(order);
+        // save runs @PrePersist, which fills in the date and status
+        Order saved = orderRepository.save(order);
+        salesRollups.orderChanged(previous, saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public OrderBatchResponse createOrders(List<Order> orders) {
+        log.info("Creating batch of {} orders", orders.size());
+        long start = System.nanoTime();
+
+        // Price every line with a single IN lookup
+        Set<Long> productIds = new HashSet<>();
+        for (Order order : orders) {
+            // Null lines are rejected one by one in validateLine
+            if (order != null && order.getProductId() != null) {
+                productIds.add(order.getProductId());
+            }
+        }
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<OrderLineResult> results = new ArrayList<>(orders.size());
+        List<Order> accepted = new ArrayList<>(orders.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            String problem = validateLine(order, products);
+            if (problem == null) {
+                try {
+                    stockLedger.reserveForCurrentTransaction(order.getProductId(), order.getQuantity());
+                } catch (InsufficientStockException e) {
+                    problem = e.getMessage();
+                }
+            }
+            if (problem != null) {
+                results.add(OrderLineResult.rejected(i, problem));
+                continue;
+            }
+
+            order.setId(null);
+            if (order.getTotalAmount() == null) {
+                Product product = products.get(order.getProductId());
+                order.setTotalAmount(product.getPricePerUnit().multiply(BigDecimal.valueOf(order.getQuantity())));
+            }
+            accepted.add(order);
+            acceptedIndexes.add(i);
+            results.add(null);
+        }
+
+        // Sequence ids let Hibernate send these as JDBC batches on flush
+        List<Order> saved = orderRepository.saveAll(accepted);
+        orderRepository.flush();
+        salesRollups.ordersPlaced(saved);
+        for (int i = 0; i < saved.size(); i++) {
+            Order order = saved.get(i);
+            int index = acceptedIndexes.get(i);
+            results.set(index, OrderLineResult.created(index, order.getId(), order.getTotalAmount()));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = saved.isEmpty() ? 0 : saved.size() / (elapsedNanos / 1_000_000_000.0);
+        log.info("Batch created {} orders, rejected {} in {} ms ({} rows/sec)", saved.size(),
+                orders.size() - saved.size(), elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new OrderBatchResponse(saved.size(), orders.size() - saved.size(), elapsedNanos / 1_000_000,
+                rowsPerSecond, results);
+    }
+
+    private String validateLine(Order order, Map<Long, Product> products) {
+        if (order == null) {
+            return "Order line is empty";
+        }
+        if (order.getProductId() == null) {
+            return "Product id is required";
+        }
+        if (order.getQuantity() == null || order.getQuantity() <= 0) {
+            return "Quantity must be positive";
+        }
+        if (order.getCustomerName() == null || order.getCustomerName().isBlank()) {
+            return "Customer name is required";
+        }
+        if (!products.containsKey(order.getProductId())) {
+            return "Product not found with id: " + order.getProductId();
+        }
+        return null;
+    }
+
+    // The order as currently stored, or null. Read with JDBC because the entity
+    // passed to createOrder may be the managed instance already carrying the
+    // new values.
+    private Order storedOrder(Long id) {
+        List<Order> stored = jdbcTemplate.query(STORED_ORDER_SQL, (rs, rowNum) -> Order.builder()
+                .id(id)
+                .productId(rs.getLong("product_id"))
+                .quantity(rs.getInt("quantity"))
+                .status(rs.getString("status"))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .orderDate(rs.getTimestamp("order_date").toLocalDateTime())
+                .build(), id);
+        return stored.isEmpty() ? null : stored.get(0);
+    }
+
+    // Reserves stock through the ledger instead of locking the product row.
+    // OrderController.updateOrder also saves through createOrder, so for an
+    // existing order only the difference from the stored quantity is reserved.
+    private void adjustStock(Order order, Order previous) {
+        Long productId = Objects.requireNonNull(order.getProductId());
+        int quantity = Objects.requireNonNull(order.getQuantity());
+
+        if (previous == null) {
+            stockLedger.reserveForCurrentTransaction(productId, quantity);
+            return;
+        }
+
+        Long previousProductId = previous.getProductId();
+        int previousQuantity = previous.getQuantity();
+        if (!previousProductId.equals(productId)) {
+            stockLedger.reserveForCurrentTransaction(productId, quantity);
+            restockAfterCommit(previousProductId, previousQuantity);
+        } else if (quantity > previousQuantity) {
+            stockLedger.reserveForCurrentTransaction(productId, quantity - previousQuantity);
+        } else if (quantity < previousQuantity) {
+            restockAfterCommit(productId, previousQuantity - quantity);
+        }
+    }
+
+    private void restockAfterCommit(Long productId, int quantity) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stockLedger.restock(productId, quantity);
+            }
+        });
     }
 
     @Override
@@ -60,9 +252,14 @@ public class OrderServiceImpl implements OrderService {
     public void deleteOrder(Long id) {
         log.info("Deleting order with id: {}", id);
         Long nonNullId = Objects.requireNonNull(id);
-        if (!orderRepository.existsById(nonNullId)) {
+        Order previous = storedOrder(nonNullId);
+        if (previous == null) {
             throw new ResourceNotFoundException("Order not found with id: " + nonNullId);
         }
         orderRepository.deleteById(nonNullId);
+        // Read by the incremental export, which cannot see deleted rows
+        jdbcTemplate.update(RECORD_DELETION_SQL, nonNullId, Timestamp.valueOf(LocalDateTime.now()));
+        salesRollups.orderRemoved(previous);
+        restockAfterCommit(previous.getProductId(), previous.getQuantity());
     }
 } // End of class
@@ -2,6 +2,7 @@ package com.blockflow.service.impl;
 
 import com.blockflow.dto.ProductRequest;
 import com.blockflow.dto.ProductResponse;
+import com.blockflow.event.ProductChangedEvent;
 import com.blockflow.exception.ResourceNotFoundException;
 import com.blockflow.mapper.ProductMapper;
 import com.blockflow.model.Product;
@@ -9,9 +10,13 @@ import com.blockflow.repository.ProductRepository;
 import com.blockflow.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,16 +29,19 @@ import java.util.stream.Collectors;
 @SuppressWarnings("null")
 public class ProductServiceImpl implements ProductService {
 
+    private static final String RECORD_DELETION_SQL = "INSERT INTO product_deletions (product_id, deleted_at) "
+            + "VALUES (?, ?)";
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
         log.info("Fetching all products");
-        return productRepository.findAllByOrderByNameAsc().stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        return productRepository.findAllResponsesOrderByName();
     }
 
     @Override
@@ -51,6 +59,7 @@ public class ProductServiceImpl implements ProductService {
         log.info("Creating new product: {}", productRequest.getName());
         Product product = productMapper.toEntity(productRequest);
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(ProductChangedEvent.Type.CREATED, savedProduct));
         return productMapper.toResponse(savedProduct);
     }
 
@@ -63,6 +72,7 @@ public class ProductServiceImpl implements ProductService {
 
         productMapper.updateEntityFromRequest(product, productRequest);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(ProductChangedEvent.Type.UPDATED, updatedProduct));
         return productMapper.toResponse(updatedProduct);
     }
 
@@ -74,6 +84,9 @@ public class ProductServiceImpl implements ProductService {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        // Read by the incremental export, which cannot see deleted rows
+        jdbcTemplate.update(RECORD_DELETION_SQL, id, Timestamp.valueOf(LocalDateTime.now()));
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     @Override
@@ -89,8 +102,6 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public List<ProductResponse> getAvailableProducts() {
         log.info("Fetching available products (stock > 0)");
-        return productRepository.findByStockQuantityGreaterThan(0).stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        return productRepository.findAvailableResponses();
     }
 } // End of class
@@ -0,0 +1,36 @@
+-- Indexes for the filters and sorts in ProductRepository, ProductSearchService,
+-- ExportService and OrderRepository. Keyword search (LIKE '%...%') cannot use
+-- a B-tree index; it is served by ProductSearchIndex instead.
+
+-- category = ? AND price_per_unit BETWEEN ? AND ?, and DISTINCT category
+CREATE INDEX idx_products_category_price ON products (category, price_per_unit);
+
+-- price_per_unit BETWEEN ? AND ? without a category, and price sorts
+CREATE INDEX idx_products_price ON products (price_per_unit);
+
+-- "newest" sort
+CREATE INDEX idx_products_created_at ON products (created_at DESC);
+
+-- "popular" sort
+CREATE INDEX idx_products_view_count ON products (view_count DESC);
+
+-- in-stock listing (stock_quantity > 0)
+CREATE INDEX idx_products_stock_quantity ON products (stock_quantity);
+
+-- listing ordered by name
+CREATE INDEX idx_products_name ON products (name);
+
+-- findByDimensions
+CREATE INDEX idx_products_dimensions ON products (dimensions);
+
+-- product export with since=
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+
+-- a user's orders
+CREATE INDEX idx_orders_user_id ON orders (user_id);
+
+-- orders of a product
+CREATE INDEX idx_orders_product_id ON orders (product_id);
+
+-- order export with since=, and the admin listing's default date sort
+CREATE INDEX idx_orders_order_date ON orders (order_date DESC);
@@ -0,0 +1,11 @@
+-- Numeric dimensions parsed from products.dimensions for range searches.
+-- Existing rows are filled in by V6 (com.blockflow.migration), new and edited
+-- ones by Product on save. One statement, so the table is rebuilt once, and
+-- the indexes come in V7 after the backfill.
+
+ALTER TABLE products ADD COLUMN (
+    length_mm INTEGER,
+    height_mm INTEGER,
+    thickness_mm INTEGER,
+    volume_mm3 BIGINT
+);
@@ -0,0 +1,9 @@
+-- Range filters of /api/products/search-advanced (minLength/maxLength etc.)
+
+CREATE INDEX idx_products_length_mm ON products (length_mm);
+
+CREATE INDEX idx_products_height_mm ON products (height_mm);
+
+CREATE INDEX idx_products_thickness_mm ON products (thickness_mm);
+
+CREATE INDEX idx_products_volume_mm3 ON products (volume_mm3);
@@ -0,0 +1,18 @@
+-- Per day, product and status totals of orders, kept up to date by
+-- OrderServiceImpl in the same transaction as the order itself. Backs
+-- GET /api/admin/stats. Seeded here from the existing orders.
+
+CREATE TABLE sales_rollups (
+    sales_date DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    order_count BIGINT NOT NULL,
+    quantity BIGINT NOT NULL,
+    revenue DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (sales_date, product_id, status)
+);
+
+INSERT INTO sales_rollups (sales_date, product_id, status, order_count, quantity, revenue)
+SELECT CAST(order_date AS DATE), product_id, status, COUNT(*), SUM(quantity), COALESCE(SUM(total_amount), 0)
+FROM orders
+GROUP BY CAST(order_date AS DATE), product_id, status;
@@ -0,0 +1,2 @@
+-- Admin user listing filtered by role / enabled, and the bulk role updates
+CREATE INDEX idx_users_role_enabled ON users (role, enabled);
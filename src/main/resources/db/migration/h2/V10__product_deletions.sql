@@ -0,0 +1,10 @@
+-- Ids of deleted products, so the incremental export (since=) can tell the
+-- ERP about deletes. Product ids come from a sequence and are never reused.
+
+CREATE TABLE product_deletions (
+    product_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (product_id)
+);
+
+CREATE INDEX idx_product_deletions_deleted_at ON product_deletions (deleted_at);
@@ -0,0 +1,17 @@
+-- Order changes for the incremental export (since=): updated_at is set on
+-- every insert and update, and deleted order ids are kept in order_deletions.
+-- Order ids come from a sequence and are never reused.
+
+ALTER TABLE orders ADD COLUMN updated_at TIMESTAMP(6);
+
+UPDATE orders SET updated_at = order_date;
+
+CREATE INDEX idx_orders_updated_at ON orders (updated_at);
+
+CREATE TABLE order_deletions (
+    order_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (order_id)
+);
+
+CREATE INDEX idx_order_deletions_deleted_at ON order_deletions (deleted_at);
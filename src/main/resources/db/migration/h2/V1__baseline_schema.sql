@@ -0,0 +1,51 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Databases
+-- created that way are baselined at this version and start from V2.
+
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    role VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN', 'USER')),
+    enabled BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE products (
+    id BIGINT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    dimensions VARCHAR(255),
+    price_per_unit NUMERIC(10, 2) NOT NULL,
+    stock_quantity INTEGER NOT NULL CHECK (stock_quantity >= 0),
+    description VARCHAR(500),
+    weight NUMERIC(10, 2) NOT NULL,
+    category VARCHAR(255),
+    view_count BIGINT NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_products_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL,
+    order_date TIMESTAMP(6) NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    total_amount NUMERIC(10, 2),
+    customer_name VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
@@ -0,0 +1,12 @@
+-- Ids moved from IDENTITY to pooled sequences (allocation size 50). Databases
+-- run with ddl-auto=update since then have the sequences, created at 1; older
+-- ones baselined at V1 have none yet. Hibernate hands out the 50 ids ending at
+-- the value it reads, so restart one block above the highest id.
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE products_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM products);
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE orders_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM orders);
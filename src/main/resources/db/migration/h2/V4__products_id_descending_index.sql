@@ -0,0 +1,5 @@
+-- H2 cannot walk the primary key backwards, so the default "id DESC" product
+-- sort would read and sort the whole table. MySQL scans the key in reverse
+-- and needs no equivalent.
+
+CREATE INDEX idx_products_id_desc ON products (id DESC);
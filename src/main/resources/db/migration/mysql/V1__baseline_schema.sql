@@ -0,0 +1,61 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Databases
+-- created that way are baselined at this version and start from V2.
+-- MySQL has no sequences, so Hibernate keeps the pooled id counters in
+-- single-row tables.
+
+CREATE TABLE orders_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO orders_seq VALUES (1);
+
+CREATE TABLE products_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO products_seq VALUES (1);
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    role ENUM ('ADMIN', 'USER') NOT NULL,
+    enabled BIT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE products (
+    id BIGINT NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    dimensions VARCHAR(255),
+    price_per_unit DECIMAL(10, 2) NOT NULL,
+    stock_quantity INTEGER NOT NULL,
+    description VARCHAR(500),
+    weight DECIMAL(10, 2) NOT NULL,
+    category VARCHAR(255),
+    view_count BIGINT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_products_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL,
+    order_date DATETIME(6) NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    total_amount DECIMAL(10, 2),
+    customer_name VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    user_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
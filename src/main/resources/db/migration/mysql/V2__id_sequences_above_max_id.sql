@@ -0,0 +1,20 @@
+-- Ids moved from IDENTITY to pooled sequences (allocation size 50). Databases
+-- run with ddl-auto=update since then have the counter tables, created at 1;
+-- older ones baselined at V1 have none yet. Hibernate hands out the 50 ids
+-- ending at the value it reads, so restart one block above the highest id.
+
+CREATE TABLE IF NOT EXISTS products_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+DELETE FROM products_seq;
+
+INSERT INTO products_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM products;
+
+CREATE TABLE IF NOT EXISTS orders_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+DELETE FROM orders_seq;
+
+INSERT INTO orders_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM orders;
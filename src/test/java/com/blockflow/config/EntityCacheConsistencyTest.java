@@ -0,0 +1,148 @@
+package com.blockflow.config;
+
+import com.blockflow.dto.ProductRequest;
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.inventory.StockLedger;
+import com.blockflow.model.Product;
+import com.blockflow.model.User;
+import com.blockflow.repository.UserRepository;
+import com.blockflow.service.ProductService;
+import com.blockflow.service.ProductViewCounter;
+import com.blockflow.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every write path followed by a read, with the second-level and natural-id
+ * caches warm: the read must see the write.
+ */
+@SpringBootTest
+class EntityCacheConsistencyTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductViewCounter viewCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long productId;
+    private User user;
+
+    @BeforeEach
+    void createProductAndUser() {
+        productId = productService.createProduct(request("Cache Test Block", "30.00", 100)).getId();
+        User created = new User();
+        created.setUsername("cache-test");
+        created.setEmail("cache-test@example.com");
+        created.setPassword("x");
+        created.setRole(User.Role.USER);
+        created.setEnabled(true);
+        user = userRepository.save(created);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productService.deleteProduct(productId);
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void productUpdateIsReadBack() {
+        warmProduct();
+
+        productService.updateProduct(productId, request("Cache Test Block XL", "35.00", 80));
+
+        ProductResponse read = productService.getProductById(productId);
+        assertThat(read.getName()).isEqualTo("Cache Test Block XL");
+        assertThat(read.getPricePerUnit()).isEqualByComparingTo("35.00");
+        assertThat(read.getStockQuantity()).isEqualTo(80);
+    }
+
+    @Test
+    void reconciledStockIsReadBack() {
+        warmProduct();
+
+        stockLedger.confirm(stockLedger.reserve(productId, 7));
+        stockLedger.reconcile();
+
+        assertThat(productService.getProductById(productId).getStockQuantity()).isEqualTo(93);
+    }
+
+    @Test
+    void bulkUserUpdatesAreReadBackByIdAndUsername() {
+        warmUser();
+
+        userService.setRole(List.of(user.getId()), User.Role.ADMIN);
+        userService.setEnabled(List.of(user.getId()), false);
+
+        User byUsername = userRepository.findByUsername("cache-test").orElseThrow();
+        User byId = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(byUsername.getRole()).isEqualTo(User.Role.ADMIN);
+        assertThat(byUsername.isEnabled()).isFalse();
+        assertThat(byId.getRole()).isEqualTo(User.Role.ADMIN);
+        assertThat(byId.isEnabled()).isFalse();
+    }
+
+    @Test
+    void viewFlushKeepsTheProductCached() {
+        warmProduct();
+        Long viewsBefore = viewCount();
+
+        viewCounter.increment(productId);
+        viewCounter.increment(productId);
+        viewCounter.flush();
+
+        assertThat(viewCount()).isEqualTo(viewsBefore + 2);
+        assertThat(entityManagerFactory.getCache().contains(Product.class, productId)).isTrue();
+    }
+
+    private void warmProduct() {
+        productService.getProductById(productId);
+        assertThat(entityManagerFactory.getCache().contains(Product.class, productId)).isTrue();
+    }
+
+    private void warmUser() {
+        assertThat(userRepository.findByUsername("cache-test")).isPresent();
+        assertThat(userRepository.findById(user.getId())).isPresent();
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.getId())).isTrue();
+    }
+
+    private Long viewCount() {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM products WHERE id = ?", Long.class, productId);
+    }
+
+    private static ProductRequest request(String name, String price, int stock) {
+        ProductRequest request = new ProductRequest();
+        request.setName(name);
+        request.setDimensions("600x200x100mm");
+        request.setPricePerUnit(new BigDecimal(price));
+        request.setStockQuantity(stock);
+        request.setWeight(BigDecimal.ONE);
+        return request;
+    }
+}
@@ -0,0 +1,75 @@
+package com.blockflow.config;
+
+import com.blockflow.dto.ProductResponse;
+import com.blockflow.service.ProductJsonCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductJsonCacheConfigTest {
+
+    private final ProductJsonCache cache = new ProductJsonCache(true, 4, 1, 1024);
+    // Configured like Spring Boot's, with and without the cache module
+    private final ObjectMapper plain = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper cached = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new ProductJsonCacheConfig().productJsonCacheModule(cache))
+            .build();
+
+    @Test
+    void nothingIsStoredOutsideAReadScope() throws Exception {
+        ProductResponse product = product(1L, "Jumbo Block");
+
+        assertThat(cached.writeValueAsString(product)).isEqualTo(plain.writeValueAsString(product));
+        assertThat(cache.getStoredCount()).isZero();
+    }
+
+    @Test
+    void cachedJsonIsWrittenAsIsToBytesAndStrings() throws Exception {
+        List<ProductResponse> page = List.of(product(1L, "Jumbo Block"), product(2L, "Lintel \"U\" Beam"));
+        try (ProductJsonCache.ReadScope scope = cache.openReadScope()) {
+            cached.writeValueAsBytes(page);
+        }
+        assertThat(cache.getStoredCount()).isEqualTo(2);
+
+        // Stale objects, so the output can only match if it came from the cache
+        List<ProductResponse> stale = List.of(product(1L, "Old name"), product(2L, "Old name"));
+
+        assertThat(cached.writeValueAsBytes(stale)).isEqualTo(plain.writeValueAsBytes(page));
+        assertThat(cached.writeValueAsString(stale)).isEqualTo(plain.writeValueAsString(page));
+        assertThat(cache.getHitCount()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidatedProductsAreSerializedAgain() throws Exception {
+        try (ProductJsonCache.ReadScope scope = cache.openReadScope()) {
+            cached.writeValueAsBytes(product(1L, "Jumbo Block"));
+        }
+
+        cache.invalidate(1L);
+        ProductResponse renamed = product(1L, "Jumbo Block XL");
+
+        assertThat(cached.writeValueAsString(renamed)).isEqualTo(plain.writeValueAsString(renamed));
+    }
+
+    private static ProductResponse product(Long id, String name) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName(name);
+        product.setDimensions("600x200x100mm");
+        product.setPricePerUnit(new BigDecimal("30.00"));
+        product.setStockQuantity(12);
+        product.setWeight(BigDecimal.ONE);
+        product.setCreatedAt(LocalDateTime.of(2024, 3, 1, 10, 0));
+        return product;
+    }
+}
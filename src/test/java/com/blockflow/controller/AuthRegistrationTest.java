@@ -0,0 +1,59 @@
+package com.blockflow.controller;
+
+import com.blockflow.model.User;
+import com.blockflow.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthRegistrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void theUserIsSavedOffThePasswordHashingPool() throws Exception {
+        AtomicReference<User> saved = new AtomicReference<>();
+        AtomicReference<String> savingThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if ("registration-test".equals(user.getUsername())) {
+                saved.set(user);
+                savingThread.set(Thread.currentThread().getName());
+            }
+            return user;
+        }).when(userRepository).save(any(User.class));
+
+        MvcResult result = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"registration-test\",\"email\":\"registration-test@example.com\","
+                                + "\"password\":\"secret-123\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isCreated());
+
+        assertThat(savingThread.get()).isNotNull().doesNotStartWith("password-hash-");
+        assertThat(saved.get().getPassword()).startsWith("$2");
+        assertThat(saved.get().getRole()).isEqualTo(User.Role.USER);
+    }
+}
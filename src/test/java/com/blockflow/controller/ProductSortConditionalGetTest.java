@@ -0,0 +1,45 @@
+package com.blockflow.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductSortConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void sortsByStoredFieldsAnswerAMatchingETagWith304() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/sort").param("sortBy", "price_asc"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        mockMvc.perform(get("/api/products/sort").param("sortBy", "price_asc")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void thePopularSortIsAlwaysQueried() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/sort").param("sortBy", "price_asc"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // View counts change without a new ETag, so none is offered or honored
+        mockMvc.perform(get("/api/products/sort").param("sortBy", "popular")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
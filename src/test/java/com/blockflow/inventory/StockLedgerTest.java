@@ -0,0 +1,244 @@
+package com.blockflow.inventory;
+
+import com.blockflow.exception.InsufficientStockException;
+import com.blockflow.exception.ResourceNotFoundException;
+import com.blockflow.service.CatalogVersion;
+import com.blockflow.service.ProductJsonCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+class StockLedgerTest {
+
+    private static final int PRODUCTS = 4;
+    private static final int INITIAL_STOCK = 1_000;
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+    // Runs before every batch write-back, i.e. after the deltas were taken
+    private final AtomicReference<Runnable> beforeWriteBack = new AtomicReference<>(() -> { });
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource) {
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            beforeWriteBack.get().run();
+            return super.batchUpdate(sql, batchArgs);
+        }
+    };
+
+    private final StockLedger ledger = new StockLedger(jdbcTemplate, new CatalogVersion(),
+            mock(ProductJsonCache.class), mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS), 30_000);
+
+    @BeforeEach
+    void createProducts() {
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock_quantity INT NOT NULL, "
+                + "updated_at TIMESTAMP(6))");
+        for (long id = 1; id <= PRODUCTS; id++) {
+            jdbcTemplate.update("INSERT INTO products (id, stock_quantity) VALUES (?, ?)", id, INITIAL_STOCK);
+        }
+    }
+
+    @Test
+    void confirmedUnitsAreWrittenBackAndReleasedUnitsReturn() {
+        ledger.confirm(ledger.reserve(1L, 30));
+        ledger.release(ledger.reserve(1L, 20));
+
+        assertThat(ledger.getAvailable(1L)).isEqualTo(INITIAL_STOCK - 30);
+        assertThat(dbStock(1L)).isEqualTo(INITIAL_STOCK);
+
+        ledger.reconcile();
+
+        assertThat(dbStock(1L)).isEqualTo(INITIAL_STOCK - 30);
+        assertThat(ledger.levelsOf(1L)).isEqualTo(new StockLedger.Levels(INITIAL_STOCK - 30, 0, 0));
+        // Picked up by the incremental export
+        assertThat(jdbcTemplate.queryForObject("SELECT updated_at FROM products WHERE id = 1", Timestamp.class))
+                .isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT updated_at FROM products WHERE id = 2", Timestamp.class))
+                .isNull();
+    }
+
+    @Test
+    void unknownProductIsRejected() {
+        assertThatThrownBy(() -> ledger.reserve(99L, 1)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(ledger.levelsOf(99L)).isNull();
+    }
+
+    @Test
+    void racingFirstReservationsShareOneCounter() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Every thread may load the row; only one counter may survive
+            List<Future<StockReservation>> reservations = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                reservations.add(executor.submit(() -> {
+                    start.await();
+                    return ledger.reserve(2L, 10);
+                }));
+            }
+            start.countDown();
+            for (Future<StockReservation> reservation : reservations) {
+                reservation.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ledger.levelsOf(2L)).isEqualTo(new StockLedger.Levels(INITIAL_STOCK - threads * 10,
+                threads * 10, 0));
+    }
+
+    @Test
+    void resyncDuringWriteBackDoesNotCountUnitsTwice() throws Exception {
+        ledger.confirm(ledger.reserve(1L, 400));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A product update commits while the write-back is in flight; its
+            // resync has to wait rather than read the not yet decremented row
+            AtomicReference<Future<?>> resync = new AtomicReference<>();
+            beforeWriteBack.set(() -> {
+                resync.set(executor.submit(() -> ledger.resync(1L)));
+                try {
+                    resync.get().get(200, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    // Blocked on the reconcile lock, as it should be
+                }
+            });
+            ledger.reconcile();
+            beforeWriteBack.set(() -> { });
+            resync.get().get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(dbStock(1L)).isEqualTo(INITIAL_STOCK - 400);
+        assertThat(ledger.getAvailable(1L)).isEqualTo(INITIAL_STOCK - 400);
+    }
+
+    @Test
+    void conflictingDecrementStaysPendingUntilStockIsRaised() {
+        ledger.confirm(ledger.reserve(1L, 800));
+        jdbcTemplate.update("UPDATE products SET stock_quantity = 500 WHERE id = 1");
+
+        ledger.reconcile();
+
+        assertThat(dbStock(1L)).isEqualTo(500);
+        assertThat(ledger.getConflictingProducts()).isEqualTo(1);
+        assertThat(ledger.getReconcileConflicts()).isEqualTo(1);
+        assertThat(ledger.levelsOf(1L)).isEqualTo(new StockLedger.Levels(-300, 0, 800));
+        assertThatThrownBy(() -> ledger.reserve(1L, 1)).isInstanceOf(InsufficientStockException.class);
+
+        // Retried on every write-back without being counted again
+        ledger.reconcile();
+        assertThat(ledger.getReconcileConflicts()).isEqualTo(1);
+
+        jdbcTemplate.update("UPDATE products SET stock_quantity = 2000 WHERE id = 1");
+        ledger.resync(1L);
+        ledger.reconcile();
+
+        assertThat(dbStock(1L)).isEqualTo(1200);
+        assertThat(ledger.getConflictingProducts()).isZero();
+        assertThat(ledger.levelsOf(1L)).isEqualTo(new StockLedger.Levels(1200, 0, 0));
+    }
+
+    @Test
+    void concurrentOrdersResyncsAndWriteBacksNeverOversell() throws Exception {
+        int orderThreads = 4;
+        int ordersPerThread = 3_000;
+        AtomicIntegerArray sold = new AtomicIntegerArray(PRODUCTS + 1);
+        AtomicBoolean ordering = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(orderThreads + 2);
+        try {
+            Future<?> resyncs = executor.submit(() -> {
+                start.await();
+                while (ordering.get()) {
+                    ledger.resync((long) ThreadLocalRandom.current().nextInt(1, PRODUCTS + 1));
+                }
+                return null;
+            });
+            Future<?> writeBacks = executor.submit(() -> {
+                start.await();
+                while (ordering.get()) {
+                    ledger.reconcile();
+                }
+                return null;
+            });
+            Future<?>[] orders = new Future<?>[orderThreads];
+            for (int t = 0; t < orderThreads; t++) {
+                orders[t] = executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        long productId = random.nextInt(1, PRODUCTS + 1);
+                        int quantity = random.nextInt(1, 6);
+                        StockReservation reservation;
+                        try {
+                            reservation = ledger.reserve(productId, quantity);
+                        } catch (InsufficientStockException e) {
+                            continue;
+                        }
+                        if (random.nextInt(10) < 7) {
+                            ledger.confirm(reservation);
+                            sold.addAndGet((int) productId, quantity);
+                        } else {
+                            ledger.release(reservation);
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> order : orders) {
+                order.get(60, TimeUnit.SECONDS);
+            }
+            ordering.set(false);
+            resyncs.get(60, TimeUnit.SECONDS);
+            writeBacks.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (long id = 1; id <= PRODUCTS; id++) {
+            StockLedger.Levels levels = ledger.levelsOf(id);
+            assertThat(levels.held()).isZero();
+            assertThat(levels.available() + levels.held() + levels.unreconciled()).isEqualTo(dbStock(id));
+        }
+        ledger.reconcile();
+
+        assertThat(ledger.getReconcileConflicts()).isZero();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            assertThat(sold.get((int) id)).isLessThanOrEqualTo(INITIAL_STOCK);
+            assertThat(dbStock(id)).isEqualTo(INITIAL_STOCK - sold.get((int) id));
+            assertThat(ledger.levelsOf(id)).isEqualTo(new StockLedger.Levels(dbStock(id), 0, 0));
+        }
+    }
+
+    private int dbStock(long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class,
+                productId);
+    }
+}
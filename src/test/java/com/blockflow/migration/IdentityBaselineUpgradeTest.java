@@ -0,0 +1,91 @@
+package com.blockflow.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upgrades a database created before ids moved from IDENTITY columns to
+ * pooled sequences, as the application does on startup.
+ */
+class IdentityBaselineUpgradeTest {
+
+    // Hibernate's pooled optimizer hands out the block ending at the value it reads
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @Test
+    void sequencesStartAboveIdsHandedOutByIdentityColumns() {
+        createIdentitySchema();
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update("INSERT INTO products (name, price_per_unit, stock_quantity, weight, view_count) "
+                    + "VALUES ('Block', 10, 5, 1, 0)");
+        }
+        for (int i = 0; i < 75; i++) {
+            jdbcTemplate.update("INSERT INTO orders (order_date, product_id, quantity, customer_name, status) "
+                    + "VALUES (CURRENT_TIMESTAMP, 1, 1, 'Customer', 'PENDING')");
+        }
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:com/blockflow/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertThat(firstPooledId("products_seq")).isGreaterThan(maxId("products"));
+        assertThat(firstPooledId("orders_seq")).isGreaterThan(maxId("orders"));
+    }
+
+    @Test
+    void emptyDatabaseStartsSequencesAtOne() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:com/blockflow/migration")
+                .load()
+                .migrate();
+
+        assertThat(firstPooledId("products_seq")).isEqualTo(1);
+        assertThat(firstPooledId("orders_seq")).isEqualTo(1);
+    }
+
+    private long firstPooledId(String sequence) {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class) - ALLOCATION_SIZE + 1;
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+    }
+
+    // Schema as ddl-auto=update generated it while ids were IDENTITY columns
+    private void createIdentitySchema() {
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                + "username VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL, "
+                + "first_name VARCHAR(255), last_name VARCHAR(255), "
+                + "role VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN', 'USER')), enabled BOOLEAN NOT NULL, "
+                + "created_at TIMESTAMP(6) NOT NULL, PRIMARY KEY (id), "
+                + "CONSTRAINT uk_users_username UNIQUE (username), CONSTRAINT uk_users_email UNIQUE (email))");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                + "name VARCHAR(100) NOT NULL, dimensions VARCHAR(255), price_per_unit NUMERIC(10, 2) NOT NULL, "
+                + "stock_quantity INTEGER NOT NULL CHECK (stock_quantity >= 0), description VARCHAR(500), "
+                + "weight NUMERIC(10, 2), category VARCHAR(255), view_count BIGINT NOT NULL, "
+                + "created_at TIMESTAMP(6), updated_at TIMESTAMP(6), user_id BIGINT, PRIMARY KEY (id), "
+                + "CONSTRAINT fk_products_user FOREIGN KEY (user_id) REFERENCES users (id))");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                + "order_date TIMESTAMP(6) NOT NULL, product_id BIGINT NOT NULL, quantity INTEGER NOT NULL, "
+                + "total_amount NUMERIC(10, 2), customer_name VARCHAR(255) NOT NULL, status VARCHAR(255) NOT NULL, "
+                + "user_id BIGINT, PRIMARY KEY (id), "
+                + "CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id))");
+    }
+}
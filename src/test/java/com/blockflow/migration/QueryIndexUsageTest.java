@@ -0,0 +1,111 @@
+package com.blockflow.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates an empty H2 database, fills it with a catalog-sized data set and
+ * checks with EXPLAIN that the repository and export queries use the indexes
+ * added for them.
+ */
+class QueryIndexUsageTest {
+
+    private static final int PRODUCTS = 20_000;
+    private static final int ORDERS = 20_000;
+    private static final int USERS = 500;
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateAndFill() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:query-index-usage;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:com/blockflow/migration")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[] { "user" + i, "user" + i + "@example.com", i % 50 == 0 ? "ADMIN" : "USER",
+                    i % 10 != 0, Timestamp.valueOf(start) });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, role, enabled, created_at) "
+                + "VALUES (?, ?, 'x', ?, ?, ?)", users);
+
+        List<Object[]> products = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            int length = 400 + random.nextInt(400);
+            Timestamp created = Timestamp.valueOf(start.plusMinutes(id));
+            products.add(new Object[] { id, "Block " + id, length + "x200x" + (75 + id % 20 * 5),
+                    length, 200, 75 + (int) (id % 20) * 5, (long) length * 200 * 100,
+                    random.nextInt(100_000) / 100.0, random.nextInt(500), "Category " + id % 40,
+                    random.nextInt(10_000), created, created, 1 + id % USERS });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (id, name, dimensions, length_mm, height_mm, thickness_mm, "
+                + "volume_mm3, price_per_unit, stock_quantity, category, view_count, created_at, updated_at, "
+                + "user_id, weight) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1)", products);
+
+        List<Object[]> orders = new ArrayList<>();
+        for (long id = 1; id <= ORDERS; id++) {
+            Timestamp placed = Timestamp.valueOf(start.plusMinutes(id));
+            orders.add(new Object[] { id, placed, 1 + random.nextInt(PRODUCTS), 1 + random.nextInt(USERS), placed });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_date, product_id, user_id, quantity, customer_name, "
+                + "status, updated_at) VALUES (?, ?, ?, ?, 1, 'Customer', 'PENDING', ?)", orders);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+            // ProductRepository.findByCategoryAndPriceBetween
+            "SELECT id FROM products WHERE category = 'Category 7' AND price_per_unit BETWEEN 100 AND 200"
+                    + " | IDX_PRODUCTS_CATEGORY_PRICE",
+            // ProductRepository.findByPriceBetween
+            "SELECT id FROM products WHERE price_per_unit BETWEEN 100 AND 101 | IDX_PRODUCTS_PRICE",
+            // ProductRepository.findDistinctCategories
+            "SELECT DISTINCT category FROM products WHERE category IS NOT NULL | IDX_PRODUCTS_CATEGORY_PRICE",
+            // Catalog pages: default, newest, popular and by name
+            "SELECT id FROM products ORDER BY id DESC LIMIT 20 | IDX_PRODUCTS_ID_DESC",
+            "SELECT id FROM products ORDER BY created_at DESC LIMIT 20 | IDX_PRODUCTS_CREATED_AT",
+            "SELECT id FROM products ORDER BY view_count DESC LIMIT 20 | IDX_PRODUCTS_VIEW_COUNT",
+            "SELECT id FROM products ORDER BY name LIMIT 20 | IDX_PRODUCTS_NAME",
+            // ProductRepository.findByDimensions
+            "SELECT id FROM products WHERE dimensions = '600x200x100' | IDX_PRODUCTS_DIMENSIONS",
+            // search-advanced dimension ranges
+            "SELECT id FROM products WHERE length_mm BETWEEN 600 AND 601 | IDX_PRODUCTS_LENGTH_MM",
+            // ExportService with since=
+            "SELECT id FROM products WHERE updated_at >= TIMESTAMP '2024-01-14 00:00:00' ORDER BY id"
+                    + " | IDX_PRODUCTS_UPDATED_AT",
+            "SELECT id FROM orders WHERE updated_at >= TIMESTAMP '2024-01-14 00:00:00' ORDER BY id"
+                    + " | IDX_ORDERS_UPDATED_AT",
+            // Orders of a user or a product, and the admin listing's date sort
+            "SELECT id FROM orders WHERE user_id = 7 | IDX_ORDERS_USER_ID",
+            "SELECT id FROM orders WHERE product_id = 7 | IDX_ORDERS_PRODUCT_ID",
+            "SELECT id FROM orders ORDER BY order_date DESC LIMIT 20 | IDX_ORDERS_ORDER_DATE",
+            // UserRepository.findSummaries filtered by role and enabled
+            "SELECT id FROM users WHERE role = 'ADMIN' AND enabled = TRUE | IDX_USERS_ROLE_ENABLED",
+    })
+    void queryUsesItsIndex(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertThat(plan).containsIgnoringCase(index);
+    }
+}
@@ -0,0 +1,219 @@
+package com.blockflow.reporting;
+
+import com.blockflow.dto.SalesStats;
+import com.blockflow.dto.SalesStatsRow;
+import com.blockflow.model.Order;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SalesRollupsTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 3, 31);
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final SalesRollups rollups = new SalesRollups(jdbcTemplate);
+
+    @BeforeEach
+    void migrate() {
+        migrate(dataSource, "latest");
+    }
+
+    @Test
+    void placedOrdersAreTotalledPerGroup() {
+        rollups.ordersPlaced(List.of(
+                order(1, "2024-03-01T09:00", 1L, 10, "12.50", "PENDING"),
+                order(2, "2024-03-01T17:30", 1L, 5, "6.25", "PENDING"),
+                order(3, "2024-03-01T18:00", 2L, 2, "40.00", "SHIPPED"),
+                order(4, "2024-03-03T08:00", 1L, 1, "1.25", "SHIPPED")));
+
+        SalesStats byDay = rollups.stats(FROM, TO, "day", null, null);
+        assertThat(byDay.getOrderCount()).isEqualTo(4);
+        assertThat(byDay.getQuantity()).isEqualTo(18);
+        assertThat(byDay.getRevenue()).isEqualByComparingTo("60.00");
+        assertThat(byDay.getRows()).extracting(SalesStatsRow::getKey, SalesStatsRow::getOrderCount)
+                .containsExactly(tuple("2024-03-01", 3L), tuple("2024-03-03", 1L));
+
+        assertThat(rollups.stats(FROM, TO, "product", null, null).getRows())
+                .extracting(SalesStatsRow::getKey, SalesStatsRow::getQuantity)
+                .containsExactly(tuple("1", 16L), tuple("2", 2L));
+        assertThat(rollups.stats(FROM, TO, "status", null, "SHIPPED").getRows())
+                .extracting(SalesStatsRow::getKey, SalesStatsRow::getOrderCount)
+                .containsExactly(tuple("SHIPPED", 2L));
+        assertThat(rollups.stats(FROM, FROM, "status", 1L, null).getRows())
+                .extracting(SalesStatsRow::getKey, SalesStatsRow::getRevenue)
+                .containsExactly(tuple("PENDING", new BigDecimal("18.75")));
+    }
+
+    @Test
+    void statusChangeMovesTheOrderAndDropsTheEmptiedRow() {
+        Order pending = order(1, "2024-03-02T10:00", 1L, 4, "10.00", "PENDING");
+        rollups.orderChanged(null, pending);
+
+        Order shipped = order(1, "2024-03-02T10:00", 1L, 4, "10.00", "SHIPPED");
+        rollups.orderChanged(pending, shipped);
+
+        assertThat(rollups.stats(FROM, TO, "status", null, null).getRows())
+                .extracting(SalesStatsRow::getKey, SalesStatsRow::getOrderCount)
+                .containsExactly(tuple("SHIPPED", 1L));
+        assertThat(rollupRows()).isEqualTo(1);
+
+        rollups.orderRemoved(shipped);
+
+        assertThat(rollups.stats(FROM, TO, "day", null, null).getOrderCount()).isZero();
+        assertThat(rollupRows()).isZero();
+    }
+
+    @Test
+    void unchangedTotalsWriteNothing() {
+        Order order = order(1, "2024-03-02T10:00", 1L, 4, "10.00", "PENDING");
+        rollups.orderChanged(null, order);
+        jdbcTemplate.update("UPDATE sales_rollups SET order_count = 99");
+
+        rollups.orderChanged(order, order);
+
+        assertThat(rollups.stats(FROM, TO, "day", null, null).getOrderCount()).isEqualTo(99);
+    }
+
+    @Test
+    void nullAmountsCountAsZeroRevenue() {
+        rollups.ordersPlaced(List.of(order(1, "2024-03-02T10:00", 1L, 3, null, "PENDING")));
+
+        SalesStats stats = rollups.stats(FROM, TO, "day", null, null);
+        assertThat(stats.getOrderCount()).isEqualTo(1);
+        assertThat(stats.getRevenue()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void migrationSeedsRollupsFromExistingOrders() {
+        DriverManagerDataSource older = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate olderJdbc = new JdbcTemplate(older);
+        migrate(older, "7");
+        olderJdbc.update("INSERT INTO orders (id, order_date, product_id, quantity, total_amount, customer_name, "
+                + "status) VALUES (1, '2024-03-01 09:00:00', 1, 10, 12.50, 'A', 'PENDING'), "
+                + "(2, '2024-03-01 23:59:59', 1, 5, NULL, 'B', 'PENDING'), "
+                + "(3, '2024-03-02 00:00:00', 1, 1, 1.25, 'C', 'PENDING')");
+
+        migrate(older, "latest");
+
+        assertThat(new SalesRollups(olderJdbc).stats(FROM, TO, "day", null, null).getRows())
+                .extracting(SalesStatsRow::getKey, SalesStatsRow::getOrderCount, SalesStatsRow::getQuantity,
+                        SalesStatsRow::getRevenue)
+                .containsExactly(tuple("2024-03-01", 2L, 15L, new BigDecimal("12.50")),
+                        tuple("2024-03-02", 1L, 1L, new BigDecimal("1.25")));
+    }
+
+    @Test
+    void unsupportedGroupByIsRejected() {
+        assertThatThrownBy(() -> rollups.stats(FROM, TO, "customer", null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[day, product, status]");
+    }
+
+    @Test
+    void randomChangesMatchAGroupByOverOrders() {
+        Random random = new Random(11);
+        String[] statuses = { "PENDING", "SHIPPED", "DELIVERED", "CANCELLED" };
+        Map<Long, Order> orders = new HashMap<>();
+        for (long id = 1; id <= 2_000; id++) {
+            Order current = order(id, LocalDateTime.of(2024, 3, 1 + random.nextInt(20), random.nextInt(24), 0),
+                    1L + random.nextInt(8), 1 + random.nextInt(50),
+                    random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(10_000), 2),
+                    statuses[random.nextInt(statuses.length)]);
+            Order previous = orders.isEmpty() || random.nextInt(3) != 0 ? null
+                    : orders.get(1L + random.nextInt((int) id - 1));
+            if (previous != null && random.nextInt(4) == 0) {
+                rollups.orderRemoved(previous);
+                jdbcTemplate.update("DELETE FROM orders WHERE id = ?", previous.getId());
+                orders.remove(previous.getId());
+                continue;
+            }
+            if (previous != null) {
+                current.setId(previous.getId());
+            } else if (random.nextBoolean()) {
+                rollups.ordersPlaced(List.of(current));
+                persist(current, orders);
+                continue;
+            }
+            rollups.orderChanged(previous, current);
+            persist(current, orders);
+        }
+
+        Map<String, String> orderColumns = Map.of(
+                "day", "CAST(order_date AS DATE)", "product", "product_id", "status", "status");
+        orderColumns.forEach((groupBy, column) -> {
+            List<SalesStatsRow> expected = jdbcTemplate.query("SELECT " + column + ", COUNT(*), SUM(quantity), "
+                    + "COALESCE(SUM(total_amount), 0) FROM orders GROUP BY " + column + " ORDER BY " + column,
+                    (rs, rowNum) -> new SalesStatsRow(rs.getString(1), rs.getLong(2), rs.getLong(3),
+                            rs.getBigDecimal(4)));
+
+            assertThat(rollups.stats(FROM, TO, groupBy, null, null).getRows()).as(groupBy)
+                    .usingRecursiveFieldByFieldElementComparator(RecursiveComparisonConfiguration.builder()
+                            .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                            .build())
+                    .containsExactlyElementsOf(expected);
+        });
+        // Removed and moved orders leave no empty rows behind
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_rollups WHERE order_count <= 0",
+                Integer.class)).isZero();
+    }
+
+    private void persist(Order order, Map<Long, Order> orders) {
+        jdbcTemplate.update("MERGE INTO orders (id, order_date, product_id, quantity, total_amount, customer_name, "
+                + "status) KEY (id) VALUES (?, ?, ?, ?, ?, 'Customer', ?)", order.getId(), order.getOrderDate(),
+                order.getProductId(), order.getQuantity(), order.getTotalAmount(), order.getStatus());
+        orders.put(order.getId(), order);
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String target) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:com/blockflow/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private int rollupRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales_rollups", Integer.class);
+    }
+
+    private static Order order(long id, String date, Long productId, int quantity, String amount, String status) {
+        return order(id, LocalDateTime.parse(date), productId, quantity,
+                amount == null ? null : new BigDecimal(amount), status);
+    }
+
+    private static Order order(long id, LocalDateTime date, Long productId, int quantity, BigDecimal amount,
+            String status) {
+        return Order.builder()
+                .id(id)
+                .orderDate(date)
+                .productId(productId)
+                .quantity(quantity)
+                .totalAmount(amount)
+                .customerName("Customer")
+                .status(status)
+                .build();
+    }
+}
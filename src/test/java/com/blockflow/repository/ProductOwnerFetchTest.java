@@ -0,0 +1,74 @@
+package com.blockflow.repository;
+
+import com.blockflow.model.Product;
+import com.blockflow.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Product reads must not load the owning user.
+ */
+@SpringBootTest
+@Transactional
+class ProductOwnerFetchTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void giveProductsAnOwner() {
+        jdbcTemplate.update("UPDATE products SET user_id = (SELECT MIN(id) FROM users)");
+        entityManagerFactory.getCache().evictAll();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByIdLeavesTheOwnerUnloaded() {
+        Product product = productRepository.findById(1L).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(product.getUser())).isFalse();
+        assertThat(product.toString()).doesNotContain("password");
+        assertThat(userLoads()).isZero();
+    }
+
+    @Test
+    void findAllByIdAndFindAllLeaveOwnersUnloaded() {
+        List<Product> some = productRepository.findAllById(List.of(1L, 2L));
+        List<Product> all = productRepository.findAll();
+
+        assertThat(some).hasSize(2);
+        assertThat(all).isNotEmpty().allSatisfy(product ->
+                assertThat(Hibernate.isInitialized(product.getUser())).isFalse());
+        assertThat(userLoads()).isZero();
+    }
+
+    private long userLoads() {
+        return statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+    }
+}
@@ -0,0 +1,121 @@
+package com.blockflow.search;
+
+import com.blockflow.dto.CategoryFacet;
+import com.blockflow.dto.PriceBucket;
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryFacetIndexTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+
+    private final CategoryFacetIndex index = new CategoryFacetIndex(jdbcTemplate,
+            new BigDecimal[] { new BigDecimal("100"), new BigDecimal("50") });
+
+    @BeforeEach
+    void createProducts() {
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, category VARCHAR(255), "
+                + "price_per_unit NUMERIC(10, 2))");
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 'Construction', 40), (2, 'Construction', 50), "
+                + "(3, 'Construction', 150), (4, 'Partition', 75), (5, NULL, 10)");
+    }
+
+    @Test
+    void buildsOnFirstReadAndSkipsProductsWithoutCategory() {
+        assertThat(index.isReady()).isFalse();
+
+        assertThat(index.getCategories()).containsExactly("Construction", "Partition");
+        assertThat(index.isReady()).isTrue();
+    }
+
+    @Test
+    void countsProductsAndPricesPerCategory() {
+        CategoryFacet construction = facet("Construction");
+
+        assertThat(construction.getProductCount()).isEqualTo(3);
+        assertThat(construction.getMinPrice()).isEqualByComparingTo("40");
+        assertThat(construction.getMaxPrice()).isEqualByComparingTo("150");
+        // Edges are sorted; a price on an edge belongs to the bucket above it
+        assertThat(counts(construction)).containsExactly(1L, 1L, 1L);
+        assertThat(construction.getPriceBuckets().get(0).getFrom()).isEqualByComparingTo("0");
+        assertThat(construction.getPriceBuckets().get(1).getTo()).isEqualByComparingTo("100");
+        assertThat(construction.getPriceBuckets().get(2).getTo()).isNull();
+    }
+
+    @Test
+    void updateMovesProductBetweenCategoriesAndBuckets() {
+        index.rebuild();
+
+        index.onProductChanged(ProductChangedEvent.saved(ProductChangedEvent.Type.UPDATED,
+                product(3L, "Partition", "20")));
+
+        CategoryFacet construction = facet("Construction");
+        assertThat(construction.getProductCount()).isEqualTo(2);
+        assertThat(construction.getMaxPrice()).isEqualByComparingTo("50");
+        assertThat(counts(construction)).containsExactly(1L, 1L, 0L);
+        CategoryFacet partition = facet("Partition");
+        assertThat(partition.getProductCount()).isEqualTo(2);
+        assertThat(partition.getMinPrice()).isEqualByComparingTo("20");
+        assertThat(counts(partition)).containsExactly(1L, 1L, 0L);
+    }
+
+    @Test
+    void minAndMaxSurviveRemovalOfOneOfTwoEqualPrices() {
+        index.rebuild();
+        index.onProductChanged(ProductChangedEvent.saved(ProductChangedEvent.Type.CREATED,
+                product(6L, "Partition", "75.00")));
+
+        index.onProductChanged(ProductChangedEvent.deleted(4L));
+
+        CategoryFacet partition = facet("Partition");
+        assertThat(partition.getProductCount()).isEqualTo(1);
+        assertThat(partition.getMinPrice()).isEqualByComparingTo("75");
+        assertThat(partition.getMaxPrice()).isEqualByComparingTo("75");
+    }
+
+    @Test
+    void categoryDisappearsWithItsLastProduct() {
+        index.rebuild();
+        List<CategoryFacet> before = index.getFacets();
+
+        index.onProductChanged(ProductChangedEvent.deleted(4L));
+
+        assertThat(index.getCategories()).containsExactly("Construction");
+        // Readers holding the previous snapshot are unaffected
+        assertThat(before).extracting(CategoryFacet::getCategory).containsExactly("Construction", "Partition");
+    }
+
+    private CategoryFacet facet(String category) {
+        return index.getFacets().stream()
+                .filter(facet -> facet.getCategory().equals(category))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static List<Long> counts(CategoryFacet facet) {
+        return facet.getPriceBuckets().stream().map(PriceBucket::getCount).toList();
+    }
+
+    private static Product product(Long id, String category, String price) {
+        return Product.builder()
+                .id(id)
+                .name("Block " + id)
+                .category(category)
+                .pricePerUnit(new BigDecimal(price))
+                .stockQuantity(10)
+                .weight(BigDecimal.ONE)
+                .viewCount(0L)
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.blockflow.search;
+
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.model.Product;
+import com.blockflow.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository);
+
+    @BeforeEach
+    void buildIndex() {
+        when(productRepository.findAll()).thenReturn(List.of(
+                product(1L, "Standard AAC Block", "Construction", "Block for general construction"),
+                product(2L, "Jumbo AAC Block", "Construction", "Large block for load bearing walls"),
+                product(3L, "Partition Panel", "Partition", "Thin AAC panel for partition walls"),
+                product(4L, "Lintel Beam", "Lintel", "Reinforced beam over doors")));
+        index.rebuild();
+    }
+
+    @Test
+    void isReadyAfterRebuild() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void everyTokenMustMatch() {
+        assertThat(ids(index.search("aac walls"))).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(index.search("aac doors")).isEmpty();
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() {
+        // Equal scores fall back to newest id first; 3 only has "aac" in its description
+        assertThat(ids(index.search("block"))).containsExactly(2L, 1L);
+        assertThat(ids(index.search("aac"))).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void lastTokenMatchesAsPrefixBelowExactMatches() {
+        assertThat(ids(index.search("lin"))).containsExactly(4L);
+        assertThat(ids(index.search("wall"))).containsExactlyInAnyOrder(2L, 3L);
+        // "beam" in a name beats "bearing" in a description
+        assertThat(ids(index.search("bea"))).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void earlierTokensMustMatchWholeTerms() {
+        assertThat(ids(index.search("aac wall"))).containsExactlyInAnyOrder(2L, 3L);
+        // "lin" is not a term, only a prefix of "lintel"
+        assertThat(index.search("lin beam")).isEmpty();
+        assertThat(ids(index.search("lintel bea"))).containsExactly(4L);
+    }
+
+    @Test
+    void searchIsCaseAndPunctuationInsensitive() {
+        assertThat(ids(index.search("  JUMBO,  aac!"))).containsExactly(2L);
+        assertThat(index.search(" ,. ")).isEmpty();
+    }
+
+    @Test
+    void updatedProductIsFoundUnderItsNewTermsOnly() {
+        index.onProductChanged(ProductChangedEvent.saved(ProductChangedEvent.Type.UPDATED,
+                product(4L, "Lintel U-Shape", "Lintel", "Precast channel")));
+
+        assertThat(ids(index.search("channel"))).containsExactly(4L);
+        assertThat(index.search("beam")).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void deletedProductIsNoLongerFound() {
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertThat(ids(index.search("aac"))).containsExactly(1L, 3L);
+        assertThat(index.search("jumbo")).isEmpty();
+        assertThat(index.contains(2L)).isFalse();
+    }
+
+    @Test
+    void recordedViewsShowOnLaterHits() {
+        index.recordViews(1L, 5);
+
+        assertThat(index.search("standard")).singleElement()
+                .satisfies(hit -> assertThat(hit.getViewCount()).isEqualTo(5));
+    }
+
+    @Test
+    void updateFromAnEntityWithStaleViewsKeepsRecordedViews() {
+        index.recordViews(1L, 5);
+
+        // The saved entity may come from the second-level cache, which does
+        // not see the view counter's writes
+        index.onProductChanged(ProductChangedEvent.saved(ProductChangedEvent.Type.UPDATED,
+                product(1L, "Standard AAC Block", "Construction", "Block for general construction")));
+
+        assertThat(index.search("standard")).singleElement()
+                .satisfies(hit -> assertThat(hit.getViewCount()).isEqualTo(5));
+    }
+
+    @Test
+    void changesCommittedDuringARebuildAreNotOverwrittenByItsSnapshot() throws Exception {
+        List<Thread> listeners = new ArrayList<>();
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            List<Product> snapshot = List.of(
+                    product(1L, "Standard AAC Block", "Construction", "Block for general construction"),
+                    product(2L, "Jumbo AAC Block", "Construction", "Large block for load bearing walls"));
+            // Committed after the snapshot was read; the listeners run meanwhile
+            listeners.add(started(() -> index.onProductChanged(ProductChangedEvent.deleted(1L))));
+            listeners.add(started(() -> index.onProductChanged(ProductChangedEvent.saved(
+                    ProductChangedEvent.Type.UPDATED, product(2L, "Jumbo Panel", "Partition", "Renamed")))));
+            for (Thread listener : listeners) {
+                listener.join(200);
+            }
+            return snapshot;
+        });
+
+        index.rebuild();
+        for (Thread listener : listeners) {
+            listener.join();
+        }
+
+        assertThat(index.contains(1L)).isFalse();
+        assertThat(index.search("jumbo aac")).isEmpty();
+        assertThat(ids(index.search("jumbo panel"))).containsExactly(2L);
+    }
+
+    private static Thread started(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+
+    private static List<Long> ids(List<IndexedProduct> hits) {
+        return hits.stream().map(IndexedProduct::getId).toList();
+    }
+
+    private static Product product(Long id, String name, String category, String description) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .category(category)
+                .description(description)
+                .pricePerUnit(BigDecimal.TEN)
+                .stockQuantity(10)
+                .weight(BigDecimal.ONE)
+                .viewCount(0L)
+                .build();
+    }
+}
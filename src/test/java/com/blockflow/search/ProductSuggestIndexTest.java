@@ -0,0 +1,251 @@
+package com.blockflow.search;
+
+import com.blockflow.dto.ProductSuggestion;
+import com.blockflow.event.ProductChangedEvent;
+import com.blockflow.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSuggestIndexTest {
+
+    private static final int MAX_RESULTS = 20;
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+
+    // Rankings are refreshed on every query, so results are exact
+    private final ProductSuggestIndex index = new ProductSuggestIndex(jdbcTemplate, 2, MAX_RESULTS, 0);
+
+    @BeforeEach
+    void createTable() {
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(100), "
+                + "category VARCHAR(255), view_count BIGINT)");
+    }
+
+    @Test
+    void prefixesOfNamesAndCategoriesMatch() {
+        insert(1, "Standard AAC Block", "Construction", 0);
+        insert(2, "Jumbo AAC Block", "Construction", 0);
+        insert(3, "Lintel Beam", "Lintel", 0);
+
+        assertThat(ids(index.suggest("jum", 10))).containsExactly(2L);
+        assertThat(ids(index.suggest("constr", 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.suggest("jum", 10).get(0).getEdits()).isZero();
+    }
+
+    @Test
+    void typosCostEditsAndRankBelowExactMatches() {
+        insert(1, "Lintel Beam", "Lintel", 0);
+        insert(2, "Lint Roller", "Cleaning", 1_000);
+        insert(3, "Jumbo Block", "Construction", 0);
+
+        // "lintl" is one edit from "lintel" and from "lint" (one deletion)
+        List<ProductSuggestion> lintl = index.suggest("lintl", 10);
+        assertThat(lintl).extracting(ProductSuggestion::getEdits).containsOnly(1);
+        assertThat(ids(lintl)).containsExactly(2L, 1L);
+        // Swapped neighbours are one edit
+        assertThat(index.suggest("jmubo", 10)).singleElement()
+                .satisfies(hit -> assertThat(hit.getEdits()).isEqualTo(1));
+        // Exact prefix beats a more viewed typo match
+        assertThat(ids(index.suggest("linte", 10))).first().isEqualTo(1L);
+    }
+
+    @Test
+    void shortTokensMustMatchExactly() {
+        insert(1, "AAC Block", "Construction", 0);
+        insert(2, "Bond Beam", "Lintel", 0);
+
+        assertThat(ids(index.suggest("aa", 10))).containsExactly(1L);
+        assertThat(index.suggest("ab", 10)).isEmpty();
+    }
+
+    @Test
+    void everyTokenMustMatch() {
+        insert(1, "Jumbo AAC Block", "Construction", 0);
+        insert(2, "Partition Panel", "Partition", 0);
+
+        assertThat(ids(index.suggest("jumbo block", 10))).containsExactly(1L);
+        assertThat(index.suggest("jumbo panel", 10)).isEmpty();
+        assertThat(index.suggest(" ,. ", 10)).isEmpty();
+    }
+
+    @Test
+    void viewsDecideBetweenEqualMatches() {
+        insert(1, "Block One", "Construction", 5);
+        insert(2, "Block Two", "Construction", 10);
+        insert(3, "Block Three", "Construction", 1);
+
+        assertThat(ids(index.suggest("block", 10))).containsExactly(2L, 1L, 3L);
+
+        index.recordViews(3L, 100);
+
+        assertThat(ids(index.suggest("block", 10))).containsExactly(3L, 2L, 1L);
+        assertThat(ids(index.suggest("block", 2))).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void changesAreReflectedAndViewsSurviveUpdates() {
+        insert(1, "Lintel Beam", "Lintel", 0);
+        insert(2, "Jumbo Block", "Construction", 0);
+        index.rebuild();
+        index.recordViews(1L, 7);
+
+        index.onProductChanged(ProductChangedEvent.saved(ProductChangedEvent.Type.UPDATED,
+                product(1L, "U-Shape Lintel", "Lintel")));
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+        index.onProductChanged(ProductChangedEvent.saved(ProductChangedEvent.Type.CREATED,
+                product(3L, "Jumbo Panel", "Partition")));
+
+        assertThat(index.suggest("beam", 10)).isEmpty();
+        assertThat(index.suggest("shape", 10)).singleElement()
+                .satisfies(hit -> assertThat(hit.getViewCount()).isEqualTo(7));
+        assertThat(ids(index.suggest("jumbo", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void matchesABruteForceScanOverRandomCatalogs() {
+        String[] words = { "aac", "block", "blocks", "jumbo", "lintel", "lint", "beam", "bond", "panel", "partition",
+                "standard", "kerb", "kerbstone", "solid", "hollow", "paver", "interlock", "thermal", "light",
+                "lightweight", "concrete", "column", "coping", "sill", "wall", "walling" };
+        Random random = new Random(7);
+        Map<Long, String[]> terms = new HashMap<>();
+        Map<Long, Long> views = new HashMap<>();
+        for (long id = 1; id <= 600; id++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)];
+            String category = words[random.nextInt(words.length)];
+            long viewCount = random.nextInt(4) == 0 ? 0 : random.nextInt(50);
+            insert(id, name, category, viewCount);
+            Set<String> distinct = new LinkedHashSet<>(ProductSearchIndex.tokenize(name));
+            distinct.addAll(ProductSearchIndex.tokenize(category));
+            terms.put(id, distinct.toArray(new String[0]));
+            views.put(id, viewCount);
+        }
+        index.rebuild();
+
+        for (int q = 0; q < 400; q++) {
+            if (q % 50 == 0) {
+                long id = 1 + random.nextInt(600);
+                index.recordViews(id, 25);
+                views.merge(id, 25L, Long::sum);
+            }
+            List<String> tokens = new ArrayList<>();
+            for (int t = 0; t < 1 + random.nextInt(2); t++) {
+                tokens.add(typo(words[random.nextInt(words.length)], random));
+            }
+            String query = String.join(" ", tokens);
+            int limit = 1 + random.nextInt(MAX_RESULTS);
+
+            assertThat(index.suggest(query, limit)).as(query)
+                    .usingRecursiveFieldByFieldElementComparatorOnFields("id", "edits", "viewCount")
+                    .containsExactlyElementsOf(bruteForce(query, limit, terms, views));
+        }
+    }
+
+    // A prefix of the word with up to two random edits
+    private static String typo(String word, Random random) {
+        StringBuilder token = new StringBuilder(word.substring(0, 1 + random.nextInt(word.length())));
+        for (int e = random.nextInt(3); e > 0 && token.length() > 1; e--) {
+            int at = random.nextInt(token.length());
+            switch (random.nextInt(4)) {
+                case 0 -> token.deleteCharAt(at);
+                case 1 -> token.insert(at, (char) ('a' + random.nextInt(26)));
+                case 2 -> token.setCharAt(at, (char) ('a' + random.nextInt(26)));
+                default -> {
+                    if (at + 1 < token.length()) {
+                        char c = token.charAt(at);
+                        token.setCharAt(at, token.charAt(at + 1));
+                        token.setCharAt(at + 1, c);
+                    }
+                }
+            }
+        }
+        return token.toString();
+    }
+
+    private static List<ProductSuggestion> bruteForce(String query, int limit, Map<Long, String[]> terms,
+            Map<Long, Long> views) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(ProductSearchIndex.tokenize(query)));
+        List<ProductSuggestion> hits = new ArrayList<>();
+        for (Map.Entry<Long, String[]> product : terms.entrySet()) {
+            int total = 0;
+            for (String token : tokens) {
+                int allowed = token.length() <= 2 ? 0 : token.length() <= 5 ? 1 : 2;
+                int best = Integer.MAX_VALUE;
+                for (String term : product.getValue()) {
+                    for (int end = 1; end <= term.length(); end++) {
+                        best = Math.min(best, osa(token, term.substring(0, end)));
+                    }
+                }
+                if (best > allowed) {
+                    total = -1;
+                    break;
+                }
+                total += best;
+            }
+            if (total >= 0) {
+                hits.add(new ProductSuggestion(product.getKey(), null, null, views.get(product.getKey()), total));
+            }
+        }
+        hits.sort(Comparator.comparingInt(ProductSuggestion::getEdits)
+                .thenComparing(Comparator.comparingLong(ProductSuggestion::getViewCount).reversed())
+                .thenComparing(Comparator.comparing(ProductSuggestion::getId).reversed()));
+        return hits.subList(0, Math.min(limit, hits.size()));
+    }
+
+    // Optimal string alignment distance
+    private static int osa(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private void insert(long id, String name, String category, long views) {
+        jdbcTemplate.update("INSERT INTO products VALUES (?, ?, ?, ?)", id, name, category, views);
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).toList();
+    }
+
+    private static Product product(Long id, String name, String category) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .category(category)
+                .pricePerUnit(BigDecimal.TEN)
+                .stockQuantity(10)
+                .weight(BigDecimal.ONE)
+                .viewCount(0L)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.blockflow.security;
+
+import com.blockflow.security.ClientRateLimiter.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ClientRateLimiterTest {
+
+    @Test
+    void theFirstMatchingRuleApplies() {
+        ClientRateLimiter limiter = new ClientRateLimiter("/api/auth/login=5:10, /api/**=100.5:200", 1024);
+
+        assertThat(limiter.getRules()).extracting(Rule::getPattern, Rule::getPerSecond, Rule::getBurst)
+                .containsExactly(tuple("/api/auth/login", 5.0, 10),
+                        tuple("/api/**", 100.5, 200));
+        assertThat(limiter.ruleFor("/api/auth/login")).isSameAs(limiter.getRules().get(0));
+        assertThat(limiter.ruleFor("/api/products/1")).isSameAs(limiter.getRules().get(1));
+        assertThat(limiter.ruleFor("/actuator/health")).isNull();
+        assertThat(new ClientRateLimiter("", 1024).getRules()).isEmpty();
+    }
+
+    @Test
+    void malformedRulesAreRefused() {
+        for (String rules : List.of("/api/**", "/api/**=5", "/api/**=0:10", "/api/**=5:0", "=5:10")) {
+            assertThatThrownBy(() -> new ClientRateLimiter(rules, 1024)).as(rules)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void aClientGetsItsBurstThenWaitsForTheNextToken() {
+        ClientRateLimiter limiter = new ClientRateLimiter("/api/**=1:3", 1024);
+        Rule rule = limiter.getRules().get(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.acquire(rule, "client-a")).isZero();
+        }
+        long wait = limiter.acquire(rule, "client-a");
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(rule.getRejectedCount()).isEqualTo(1);
+        assertThat(limiter.acquire(rule, "client-b")).isZero();
+    }
+
+    @Test
+    void tokensComeBackAtTheConfiguredRate() throws InterruptedException {
+        ClientRateLimiter limiter = new ClientRateLimiter("/api/**=200:1", 1024);
+        Rule rule = limiter.getRules().get(0);
+
+        assertThat(limiter.acquire(rule, "client")).isZero();
+        long wait = limiter.acquire(rule, "client");
+        assertThat(wait).isPositive();
+
+        TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertThat(limiter.acquire(rule, "client")).isZero();
+    }
+
+    @Test
+    void rejectedRequestsDoNotUseUpTokens() {
+        ClientRateLimiter limiter = new ClientRateLimiter("/api/**=0.001:2", 1024);
+        Rule rule = limiter.getRules().get(0);
+
+        limiter.acquire(rule, "client");
+        limiter.acquire(rule, "client");
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(rule, "client");
+        }
+
+        // Still only one interval (1000 s) away from the next token
+        assertThat(limiter.acquire(rule, "client")).isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1000));
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedTheBurst() throws Exception {
+        int burst = 20;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 200; round++) {
+                // One token per 1000 s, so only the burst can be admitted
+                ClientRateLimiter limiter = new ClientRateLimiter("/api/**=0.001:" + burst, 1024);
+                Rule rule = limiter.getRules().get(0);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> admitted = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    String client = "client-" + t % 2;
+                    admitted.add(executor.submit(() -> {
+                        start.await();
+                        int count = 0;
+                        for (int i = 0; i < burst; i++) {
+                            if (limiter.acquire(rule, client) == 0) {
+                                count++;
+                            }
+                            Thread.yield();
+                        }
+                        return count;
+                    }));
+                }
+                start.countDown();
+
+                int[] perClient = new int[2];
+                for (int t = 0; t < threads; t++) {
+                    perClient[t % 2] += admitted.get(t).get();
+                }
+                assertThat(perClient).as("round %d", round).containsExactly(burst, burst);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
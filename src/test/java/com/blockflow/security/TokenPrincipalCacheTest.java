@@ -0,0 +1,108 @@
+package com.blockflow.security;
+
+import com.blockflow.model.User;
+import com.blockflow.repository.UserRepository;
+import com.blockflow.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenPrincipalCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenPrincipalCache cache = new TokenPrincipalCache(jwtUtil, userRepository, 100, 300);
+
+    // What the database holds for the user right now
+    private final AtomicReference<User> stored = new AtomicReference<>(user(true, User.Role.ADMIN));
+
+    @BeforeEach
+    void setUp() {
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("alice");
+        when(jwtUtil.parseClaims(TOKEN)).thenReturn(claims);
+        when(userRepository.findByUsername(anyString())).thenAnswer(invocation -> Optional.of(stored.get()));
+    }
+
+    @Test
+    void verifiedTokensAreServedFromTheCache() {
+        assertThat(cache.resolve(TOKEN).getRole()).isEqualTo(User.Role.ADMIN);
+        assertThat(cache.resolve(TOKEN).getRole()).isEqualTo(User.Role.ADMIN);
+
+        verify(userRepository, times(1)).findByUsername("alice");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidTokensAndDisabledUsersAreNotCached() {
+        when(jwtUtil.parseClaims("bad")).thenReturn(null);
+        assertThat(cache.resolve("bad")).isNull();
+
+        stored.set(user(false, User.Role.USER));
+        assertThat(cache.resolve(TOKEN)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidatedUserIsLoadedAgain() {
+        cache.resolve(TOKEN);
+        stored.set(user(true, User.Role.USER));
+
+        cache.invalidateUsers(List.of(7L));
+
+        assertThat(cache.resolve(TOKEN).getRole()).isEqualTo(User.Role.USER);
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        // The demotion commits and is invalidated while the old row is being read
+        when(userRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            User before = stored.get();
+            stored.set(user(true, User.Role.USER));
+            cache.invalidateUser(7L);
+            return Optional.of(before);
+        }).thenAnswer(invocation -> Optional.of(stored.get()));
+
+        assertThat(cache.resolve(TOKEN).getRole()).isEqualTo(User.Role.ADMIN);
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.resolve(TOKEN).getRole()).isEqualTo(User.Role.USER);
+    }
+
+    @Test
+    void disableRacingALoadIsNotServedFromTheCache() {
+        when(userRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            User before = stored.get();
+            stored.set(user(false, User.Role.ADMIN));
+            cache.invalidateAll();
+            return Optional.of(before);
+        }).thenAnswer(invocation -> Optional.of(stored.get()));
+
+        cache.resolve(TOKEN);
+
+        assertThat(cache.resolve(TOKEN)).isNull();
+    }
+
+    private static User user(boolean enabled, User.Role role) {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setEnabled(enabled);
+        user.setRole(role);
+        return user;
+    }
+}
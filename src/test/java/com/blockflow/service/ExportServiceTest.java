@@ -0,0 +1,168 @@
+package com.blockflow.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportServiceTest {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    // Configured like Spring Boot's, which serializes the API responses
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ExportService exportService = new ExportService(dataSource,
+            new DataSourceTransactionManager(dataSource), objectMapper, 2);
+
+    @BeforeEach
+    void migrate() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:com/blockflow/migration")
+                .load()
+                .migrate();
+        insertProduct(1, "2024-03-01 10:00:00", "2024-03-01 10:00:00");
+        insertProduct(2, "2024-03-01 10:00:00", "2024-03-05 08:30:15.5");
+        insertProduct(3, "2024-03-02 09:00:00", "2024-03-06 12:00:00");
+    }
+
+    @Test
+    void timestampsUseTheApiJsonFormat() throws IOException {
+        List<JsonNode> rows = ndjson(out -> exportService.exportProducts(null, ExportService.Format.NDJSON, out));
+
+        assertThat(rows).hasSize(3);
+        // LocalDateTime.toString() would drop the zero seconds
+        assertThat(rows.get(0).get("createdAt").asText()).isEqualTo("2024-03-01T10:00:00");
+        assertThat(rows.get(1).get("updatedAt").asText()).isEqualTo("2024-03-05T08:30:15.5");
+        assertThat(rows.get(0).get("stockQuantity").asInt()).isEqualTo(10);
+    }
+
+    @Test
+    void csvTimestampsMatchTheNdjsonOnes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportProducts(LocalDateTime.of(2024, 3, 6, 0, 0), ExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1]).startsWith("3,Block 3,").endsWith(",2024-03-02T09:00:00,2024-03-06T12:00:00");
+    }
+
+    @Test
+    void incrementalExportListsUpdatedRowsAndDeletions() throws IOException {
+        jdbcTemplate.update("DELETE FROM products WHERE id = 1");
+        jdbcTemplate.update("INSERT INTO product_deletions (product_id, deleted_at) VALUES (1, ?)",
+                LocalDateTime.of(2024, 3, 7, 0, 0));
+        LocalDateTime since = LocalDateTime.of(2024, 3, 5, 0, 0);
+
+        List<JsonNode> updated = ndjson(out -> exportService.exportProducts(since, ExportService.Format.NDJSON, out));
+        List<JsonNode> deleted = ndjson(out ->
+                exportService.exportProductDeletions(since, ExportService.Format.NDJSON, out));
+
+        assertThat(updated).extracting(row -> row.get("id").asLong()).containsExactly(2L, 3L);
+        assertThat(deleted).singleElement().satisfies(row -> {
+            assertThat(row.get("id").asLong()).isEqualTo(1L);
+            assertThat(row.get("deletedAt").asText()).isEqualTo("2024-03-07T00:00:00");
+        });
+        assertThat(ndjson(out -> exportService.exportProductDeletions(LocalDateTime.of(2024, 3, 8, 0, 0),
+                ExportService.Format.NDJSON, out))).isEmpty();
+    }
+
+    @Test
+    void incrementalOrderExportListsChangedOrdersAndDeletions() throws IOException {
+        insertOrder(1, "2024-03-01 10:00:00", "2024-03-01 10:00:00");
+        // Placed before since= but shipped after it
+        insertOrder(2, "2024-03-01 11:00:00", "2024-03-06 09:00:00");
+        insertOrder(3, "2024-03-06 10:00:00", "2024-03-06 10:00:00");
+        jdbcTemplate.update("INSERT INTO order_deletions (order_id, deleted_at) VALUES (4, ?)",
+                LocalDateTime.of(2024, 3, 7, 0, 0));
+        LocalDateTime since = LocalDateTime.of(2024, 3, 5, 0, 0);
+
+        List<JsonNode> changed = ndjson(out -> exportService.exportOrders(since, ExportService.Format.NDJSON, out));
+        List<JsonNode> deleted = ndjson(out ->
+                exportService.exportOrderDeletions(since, ExportService.Format.NDJSON, out));
+
+        assertThat(changed).extracting(row -> row.get("id").asLong()).containsExactly(2L, 3L);
+        assertThat(changed.get(0).get("updatedAt").asText()).isEqualTo("2024-03-06T09:00:00");
+        assertThat(deleted).singleElement().satisfies(row -> {
+            assertThat(row.get("id").asLong()).isEqualTo(4L);
+            assertThat(row.get("deletedAt").asText()).isEqualTo("2024-03-07T00:00:00");
+        });
+    }
+
+    @Test
+    void existingOrdersAreBackfilledWithTheirOrderDate() throws IOException {
+        DriverManagerDataSource older = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure()
+                .dataSource(older)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:com/blockflow/migration")
+                .target("10")
+                .load()
+                .migrate();
+        new JdbcTemplate(older).update("INSERT INTO orders (id, order_date, product_id, quantity, customer_name, "
+                + "status) VALUES (1, ?, 1, 1, 'Customer', 'NEW')", Timestamp.valueOf("2024-03-06 10:00:00"));
+        Flyway.configure()
+                .dataSource(older)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2",
+                        "classpath:com/blockflow/migration")
+                .load()
+                .migrate();
+        ExportService olderExport = new ExportService(older, new DataSourceTransactionManager(older), objectMapper, 2);
+
+        List<JsonNode> rows = ndjson(out -> olderExport.exportOrders(LocalDateTime.of(2024, 3, 5, 0, 0),
+                ExportService.Format.NDJSON, out));
+
+        assertThat(rows).singleElement()
+                .satisfies(row -> assertThat(row.get("updatedAt").asText()).isEqualTo("2024-03-06T10:00:00"));
+    }
+
+    private List<JsonNode> ndjson(Export export) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.to(out);
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+
+    private void insertProduct(long id, String createdAt, String updatedAt) {
+        jdbcTemplate.update("INSERT INTO products (id, name, price_per_unit, stock_quantity, weight, view_count, "
+                + "created_at, updated_at) VALUES (?, ?, 10, 10, 1, 0, ?, ?)", id, "Block " + id,
+                Timestamp.valueOf(createdAt), Timestamp.valueOf(updatedAt));
+    }
+
+    private void insertOrder(long id, String orderDate, String updatedAt) {
+        jdbcTemplate.update("INSERT INTO orders (id, order_date, product_id, quantity, customer_name, status, "
+                + "updated_at) VALUES (?, ?, 1, 1, 'Customer', 'NEW', ?)", id, Timestamp.valueOf(orderDate),
+                Timestamp.valueOf(updatedAt));
+    }
+
+    private interface Export {
+        void to(ByteArrayOutputStream out) throws IOException;
+    }
+}
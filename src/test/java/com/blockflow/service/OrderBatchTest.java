@@ -0,0 +1,72 @@
+package com.blockflow.service;
+
+import com.blockflow.dto.OrderBatchResponse;
+import com.blockflow.dto.OrderLineResult;
+import com.blockflow.model.Order;
+import com.blockflow.model.Product;
+import com.blockflow.repository.OrderRepository;
+import com.blockflow.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class OrderBatchTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void nullAndInvalidLinesAreRejectedOneByOne() {
+        Product product = productRepository.findAll().get(0);
+
+        OrderBatchResponse response = orderService.createOrders(Arrays.asList(
+                line(product.getId(), 2),
+                null,
+                line(null, 1),
+                line(product.getId(), 0),
+                line(Long.MAX_VALUE, 1),
+                line(product.getId(), 1)));
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(4);
+        assertThat(response.getResults())
+                .extracting(OrderLineResult::getIndex, OrderLineResult::getStatus, OrderLineResult::getMessage)
+                .containsExactly(
+                        tuple(0, OrderLineResult.Status.CREATED, null),
+                        tuple(1, OrderLineResult.Status.REJECTED, "Order line is empty"),
+                        tuple(2, OrderLineResult.Status.REJECTED, "Product id is required"),
+                        tuple(3, OrderLineResult.Status.REJECTED, "Quantity must be positive"),
+                        tuple(4, OrderLineResult.Status.REJECTED, "Product not found with id: " + Long.MAX_VALUE),
+                        tuple(5, OrderLineResult.Status.CREATED, null));
+
+        OrderLineResult first = response.getResults().get(0);
+        Order saved = orderRepository.findById(first.getOrderId()).orElseThrow();
+        assertThat(saved.getQuantity()).isEqualTo(2);
+        assertThat(saved.getTotalAmount())
+                .isEqualByComparingTo(product.getPricePerUnit().multiply(BigDecimal.valueOf(2)));
+        assertThat(first.getTotalAmount()).isEqualByComparingTo(saved.getTotalAmount());
+    }
+
+    private static Order line(Long productId, int quantity) {
+        return Order.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .customerName("Batch Test")
+                .build();
+    }
+}
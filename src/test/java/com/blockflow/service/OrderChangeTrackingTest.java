@@ -0,0 +1,63 @@
+package com.blockflow.service;
+
+import com.blockflow.model.Order;
+import com.blockflow.model.Product;
+import com.blockflow.repository.OrderRepository;
+import com.blockflow.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderChangeTrackingTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changesBumpUpdatedAtAndDeletesAreRecorded() {
+        Product product = productRepository.findAll().get(0);
+        Order order = orderService.createOrder(Order.builder()
+                .productId(product.getId())
+                .quantity(1)
+                .customerName("Tracking Test")
+                .orderDate(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build());
+        orderRepository.flush();
+        LocalDateTime created = updatedAt(order.getId());
+        assertThat(created).isAfter(order.getOrderDate());
+
+        order.setStatus("SHIPPED");
+        orderService.createOrder(order);
+        orderRepository.flush();
+
+        assertThat(updatedAt(order.getId())).isAfter(created);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getUpdatedAt()).isNotNull();
+
+        orderService.deleteOrder(order.getId());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_deletions WHERE order_id = ?",
+                Integer.class, order.getId())).isEqualTo(1);
+    }
+
+    private LocalDateTime updatedAt(Long orderId) {
+        return jdbcTemplate.queryForObject("SELECT updated_at FROM orders WHERE id = ?", LocalDateTime.class,
+                orderId);
+    }
+}
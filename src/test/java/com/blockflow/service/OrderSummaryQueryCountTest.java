@@ -0,0 +1,86 @@
+package com.blockflow.service;
+
+import com.blockflow.dto.OrderSummary;
+import com.blockflow.metrics.StatementCountInspector;
+import com.blockflow.model.Order;
+import com.blockflow.model.User;
+import com.blockflow.repository.OrderRepository;
+import com.blockflow.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class OrderSummaryQueryCountTest {
+
+    private static final int ORDERS = 45;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void createOrders() {
+        List<User> users = userRepository.findAll();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(Order.builder()
+                    .orderDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i))
+                    .productId(1L)
+                    .quantity(1 + i % 5)
+                    .totalAmount(BigDecimal.TEN)
+                    .customerName("Customer " + i)
+                    .status(i % 3 == 0 ? "SHIPPED" : "PENDING")
+                    // Entity queries would load these users one by one
+                    .user(i % 4 == 0 ? null : users.get(i % users.size()))
+                    .build());
+        }
+        orderRepository.saveAllAndFlush(orders);
+    }
+
+    @Test
+    void eachPageIsOneSelectAndOneCount() {
+        for (int page = 0; page < 3; page++) {
+            StatementCountInspector.reset();
+
+            Page<OrderSummary> summaries = orderService.getOrderSummaries("date", "desc", page, 20);
+
+            assertThat(summaries.getContent()).isNotEmpty();
+            assertThat(summaries.getTotalElements()).isGreaterThanOrEqualTo(ORDERS);
+            if (summaries.getNumberOfElements() == 20) {
+                assertThat(StatementCountInspector.current()).as("statements for page %d", page).isEqualTo(2);
+            } else {
+                // A short page is the last one, so Spring Data skips the count
+                assertThat(StatementCountInspector.current()).as("statements for page %d", page).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void summariesCarryTheOrderingUser() {
+        Page<OrderSummary> summaries = orderService.getOrderSummaries("customer", "asc", 0, ORDERS);
+
+        assertThat(summaries.getContent())
+                .filteredOn(summary -> summary.getCustomerName().startsWith("Customer "))
+                .hasSize(ORDERS)
+                .allSatisfy(summary -> assertThat(summary.getUserId() == null)
+                        .isEqualTo(summary.getUsername() == null));
+        assertThat(summaries.getContent()).anySatisfy(summary -> assertThat(summary.getUsername()).isNotNull());
+    }
+}
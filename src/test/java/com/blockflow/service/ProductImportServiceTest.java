@@ -0,0 +1,199 @@
+package com.blockflow.service;
+
+import com.blockflow.dto.ProductImportResponse;
+import com.blockflow.dto.ProductImportResult;
+import com.blockflow.dto.ProductImportResult.Status;
+import com.blockflow.mapper.ProductMapper;
+import com.blockflow.model.Product;
+import com.blockflow.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Not transactional: each chunk commits in its own transaction, so rows are
+ * cleaned up by name afterwards.
+ */
+@SpringBootTest
+class ProductImportServiceTest {
+
+    private static final String PREFIX = "Import Test ";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    // Small chunks and row limit, so a few rows cover several chunks
+    private ProductImportService importService;
+
+    @BeforeEach
+    void createService() {
+        importService = new ProductImportService(productRepository, productMapper, validator, eventPublisher,
+                objectMapper, transactionManager, 2, 6, 2);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        importService.shutdown();
+        productRepository.findAll().stream()
+                .filter(product -> product.getName().startsWith(PREFIX))
+                .forEach(product -> productService.deleteProduct(product.getId()));
+    }
+
+    @Test
+    void ndjsonRowsAreRejectedOneByOne() throws IOException {
+        ProductImportResponse response = importNdjson("""
+                {"name":"Import Test A","dimensions":"600x200x100mm","pricePerUnit":30,"stockQuantity":5,"weight":1}
+
+                null
+                {"name":"Import Test B",
+                {"name":"","dimensions":"600x200x100mm","pricePerUnit":-1,"stockQuantity":5,"weight":1}
+                [1, 2]
+                {"name":"Import Test C","dimensions":"600x200x100mm","pricePerUnit":12.5,"stockQuantity":0,"weight":2}
+                """, false);
+
+        assertThat(response.getResults()).extracting(ProductImportResult::getRow, ProductImportResult::getStatus)
+                .containsExactly(tuple(1L, Status.CREATED), tuple(2L, Status.REJECTED), tuple(3L, Status.REJECTED),
+                        tuple(4L, Status.REJECTED), tuple(5L, Status.REJECTED), tuple(6L, Status.CREATED));
+        assertThat(response.getResults().get(1).getMessage()).isEqualTo("Expected a JSON object, found null");
+        assertThat(response.getResults().get(2).getMessage()).startsWith("Invalid JSON: ");
+        assertThat(response.getResults().get(3).getMessage())
+                .isEqualTo("name: Name is required; pricePerUnit: Price must be positive");
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(4);
+        assertThat(productRepository.findById(response.getResults().get(5).getProductId()))
+                .hasValueSatisfying(product -> {
+                    assertThat(product.getName()).isEqualTo("Import Test C");
+                    assertThat(product.getPricePerUnit()).isEqualByComparingTo("12.50");
+                });
+    }
+
+    @Test
+    void csvFieldsMayBeQuotedAndUnknownColumnsAreIgnored() throws IOException {
+        ProductImportResponse response = importCsv(
+                "id,name,dimensions,pricePerUnit,stockQuantity,weight,description\r\n"
+                + "99,\"Import Test, \"\"Quoted\"\"\",600x200x100mm,30.00,5,1,\"Two\r\nlines\"\r\n"
+                + "100,Import Test Bad Price,600x200x100mm,thirty,5,1,\r\n"
+                + "\r\n"
+                + "101,Import Test Plain,600x200x100mm,10,1,1,\r\n");
+
+        assertThat(response.getResults()).extracting(ProductImportResult::getRow, ProductImportResult::getStatus)
+                .containsExactly(tuple(1L, Status.CREATED), tuple(2L, Status.REJECTED), tuple(3L, Status.CREATED));
+        assertThat(response.getResults().get(1).getMessage()).isEqualTo("pricePerUnit: not a number: thirty");
+        Product quoted = productRepository.findById(response.getResults().get(0).getProductId()).orElseThrow();
+        assertThat(quoted.getName()).isEqualTo("Import Test, \"Quoted\"");
+        assertThat(quoted.getDescription()).isEqualTo("Two\r\nlines");
+        assertThat(quoted.getId()).isNotEqualTo(99L);
+    }
+
+    @Test
+    void csvWithoutANameColumnIsRefused() {
+        assertThatThrownBy(() -> importCsv("title,weight\nBlock,1\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("name column");
+    }
+
+    @Test
+    void upsertUpdatesUniquelyNamedProductsAndRejectsAmbiguousNames() throws IOException {
+        importNdjson(row("Import Test Existing", 10) + row("Import Test Twin", 1) + row("Import Test Twin", 2), false);
+
+        ProductImportResponse response = importNdjson(row("Import Test Existing", 20) + row("Import Test Twin", 3)
+                + row("Import Test New", 4) + row("Import Test New", 5), true);
+
+        assertThat(response.getResults()).extracting(ProductImportResult::getStatus)
+                .containsExactly(Status.UPDATED, Status.REJECTED, Status.CREATED, Status.UPDATED);
+        assertThat(response.getResults().get(1).getMessage()).contains("2 products are named \"Import Test Twin\"");
+        // The second New row updates the product the first one created
+        assertThat(response.getResults().get(3).getProductId()).isEqualTo(response.getResults().get(2).getProductId());
+        assertThat(stockOf("Import Test Existing")).containsExactly(20);
+        assertThat(stockOf("Import Test New")).containsExactly(5);
+        assertThat(stockOf("Import Test Twin")).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void aFailedChunkDoesNotUndoEarlierChunks() throws IOException {
+        // Valid for the request constraints, but too large for price_per_unit NUMERIC(10, 2)
+        String tooExpensive = """
+                {"name":"Import Test Too Expensive","dimensions":"600x200x100mm","pricePerUnit":1E+20,\
+                "stockQuantity":1,"weight":1}
+                """;
+
+        ProductImportResponse response = importNdjson(row("Import Test First", 1) + row("Import Test Second", 1)
+                + row("Import Test Third", 1) + tooExpensive + row("Import Test Fifth", 1), false);
+
+        assertThat(response.getResults()).extracting(ProductImportResult::getStatus)
+                .containsExactly(Status.CREATED, Status.CREATED, Status.REJECTED, Status.REJECTED, Status.CREATED);
+        assertThat(response.getResults().get(2).getMessage()).startsWith("Chunk could not be saved");
+        assertThat(stockOf("Import Test Third")).isEmpty();
+        assertThat(stockOf("Import Test First")).containsExactly(1);
+        assertThat(stockOf("Import Test Fifth")).containsExactly(1);
+    }
+
+    @Test
+    void rowsPastTheLimitAreNotRead() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 8; i++) {
+            ndjson.append(row("Import Test Row " + i, i));
+        }
+
+        ProductImportResponse response = importNdjson(ndjson.toString(), false);
+
+        assertThat(response.getCreated()).isEqualTo(6);
+        assertThat(response.getResults()).hasSize(7).last().satisfies(result -> {
+            assertThat(result.getRow()).isEqualTo(7);
+            assertThat(result.getStatus()).isEqualTo(Status.REJECTED);
+            assertThat(result.getMessage()).contains("limited to 6 rows");
+        });
+    }
+
+    private ProductImportResponse importNdjson(String body, boolean upsert) throws IOException {
+        return importService.importProducts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                ExportService.Format.NDJSON, upsert);
+    }
+
+    private ProductImportResponse importCsv(String body) throws IOException {
+        return importService.importProducts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                ExportService.Format.CSV, false);
+    }
+
+    private List<Integer> stockOf(String name) {
+        return productRepository.findByNameIn(List.of(name)).stream().map(Product::getStockQuantity).toList();
+    }
+
+    private static String row(String name, int stock) {
+        return "{\"name\":\"" + name + "\",\"dimensions\":\"600x200x100mm\",\"pricePerUnit\":30,\"stockQuantity\":"
+                + stock + ",\"weight\":1}\n";
+    }
+}
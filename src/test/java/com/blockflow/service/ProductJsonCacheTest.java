@@ -0,0 +1,241 @@
+package com.blockflow.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductJsonCacheTest {
+
+    @Test
+    void storedJsonIsReturnedUntilTheProductIsInvalidated() {
+        ProductJsonCache cache = new ProductJsonCache(true, 4, 1, 1024);
+
+        cache.put(1L, cache.readVersion(), json(1, 1, 40));
+
+        assertThat(cache.get(1L)).isEqualTo(json(1, 1, 40));
+        assertThat(cache.get(2L)).isNull();
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getEntries()).isZero();
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatingOneProductKeepsEveryOtherEntry() {
+        ProductJsonCache cache = new ProductJsonCache(true, 16, 1, 16_384);
+        long version = cache.readVersion();
+        for (long id = 1; id <= 5_000; id++) {
+            cache.put(id, version, json(id, 0, 20));
+        }
+
+        for (long id = 1; id <= 5_000; id += 10) {
+            cache.invalidate(id);
+        }
+
+        for (long id = 1; id <= 5_000; id++) {
+            if (id % 10 == 1) {
+                assertThat(cache.get(id)).as("id %d", id).isNull();
+            } else {
+                assertThat(cache.get(id)).as("id %d", id).isEqualTo(json(id, 0, 20));
+            }
+        }
+        assertThat(cache.getEntries()).isEqualTo(4_500);
+    }
+
+    @Test
+    void aLoadThatStartedBeforeAnInvalidationIsNotStored() {
+        ProductJsonCache cache = new ProductJsonCache(true, 4, 1, 1024);
+        long before = cache.readVersion();
+
+        cache.invalidate(1L);
+        cache.put(1L, before, json(1, 1, 40));
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getRejectedCount()).isEqualTo(1);
+
+        cache.put(1L, cache.readVersion(), json(1, 2, 40));
+
+        assertThat(cache.get(1L)).isEqualTo(json(1, 2, 40));
+    }
+
+    @Test
+    void anOlderLoadDoesNotReplaceANewerEntry() {
+        ProductJsonCache cache = new ProductJsonCache(true, 4, 1, 1024);
+        long older = cache.readVersion();
+        cache.invalidate(99L);
+        long newer = cache.readVersion();
+
+        cache.put(1L, newer, json(1, 2, 40));
+        cache.put(1L, older, json(1, 1, 40));
+
+        assertThat(cache.get(1L)).isEqualTo(json(1, 2, 40));
+    }
+
+    @Test
+    void tombstonesMakeRoomForNewEntriesWhenTheIndexIsFull() {
+        // Two entries per segment
+        ProductJsonCache cache = new ProductJsonCache(true, 4, 1, 32);
+        for (long id = 1; id <= 1_000; id++) {
+            cache.invalidate(id);
+        }
+
+        cache.put(5_000L, cache.readVersion(), json(5_000, 0, 40));
+
+        assertThat(cache.get(5_000L)).isEqualTo(json(5_000, 0, 40));
+        assertThat(cache.getEntries()).isEqualTo(1);
+    }
+
+    @Test
+    void reusedSlabsDropTheirEntries() {
+        // Two 1 MB slabs of 100 KB entries: the ring holds about 20
+        ProductJsonCache cache = new ProductJsonCache(true, 2, 1, 1024);
+        for (long id = 1; id <= 50; id++) {
+            cache.put(id, cache.readVersion(), json(id, 0, 100_000));
+        }
+
+        assertThat(cache.getRecycledSlabs()).isPositive();
+        assertThat(cache.getOffHeapBytes()).isEqualTo(2L << 20);
+        for (long id = 1; id <= 30; id++) {
+            assertThat(cache.get(id)).as("id %d", id).isNull();
+        }
+        for (long id = 45; id <= 50; id++) {
+            assertThat(cache.get(id)).as("id %d", id).isEqualTo(json(id, 0, 100_000));
+        }
+
+        // An overwritten entry can be stored again
+        cache.put(1L, cache.readVersion(), json(1, 0, 100));
+        assertThat(cache.get(1L)).isEqualTo(json(1, 0, 100));
+    }
+
+    @Test
+    void aDisabledCacheStoresNothing() {
+        ProductJsonCache cache = new ProductJsonCache(false, 4, 1, 1024);
+
+        cache.put(1L, cache.readVersion(), json(1, 1, 40));
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getEntries()).isZero();
+        assertThat(cache.getOffHeapBytes()).isZero();
+    }
+
+    /**
+     * Loads, writes and reads of a small catalog through a cache small enough
+     * that slabs are reused all the time. A read must never return bytes of
+     * another product, torn bytes, or a value older than the last write whose
+     * invalidation had completed when the read started.
+     */
+    @Test
+    void concurrentLoadsWritesAndReadsNeverServeStaleOrTornJson() throws Exception {
+        int products = 200;
+        ProductJsonCache cache = new ProductJsonCache(true, 2, 1, 1024);
+        // The database value of each product and the last one whose invalidation finished
+        AtomicLongArray database = new AtomicLongArray(products + 1);
+        AtomicLongArray invalidated = new AtomicLongArray(products + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int w = 0; w < 2; w++) {
+            tasks.add(executor.submit(() -> {
+                while (running.get()) {
+                    int id = 1 + ThreadLocalRandom.current().nextInt(products);
+                    // Committed first, invalidated after, as StockLedger and the event listener do
+                    long value = database.incrementAndGet(id);
+                    cache.invalidate((long) id);
+                    invalidated.accumulateAndGet(id, value, Math::max);
+                }
+            }));
+        }
+        for (int l = 0; l < 2; l++) {
+            tasks.add(executor.submit(() -> {
+                while (running.get()) {
+                    int id = 1 + ThreadLocalRandom.current().nextInt(products);
+                    long version = cache.readVersion();
+                    long value = database.get(id);
+                    cache.put(id, version, json(id, value, 1_000 + ThreadLocalRandom.current().nextInt(20_000)));
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            tasks.add(executor.submit(() -> {
+                while (running.get()) {
+                    int id = 1 + ThreadLocalRandom.current().nextInt(products);
+                    long floor = invalidated.get(id);
+                    byte[] json = cache.get(id);
+                    if (json != null) {
+                        String problem = check(json, id, floor);
+                        if (problem != null) {
+                            failures.add(problem);
+                        }
+                    }
+                }
+            }));
+        }
+
+        TimeUnit.SECONDS.sleep(3);
+        running.set(false);
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        executor.shutdown();
+
+        assertThat(failures).isEmpty();
+        assertThat(cache.getHitCount()).isPositive();
+        assertThat(cache.getRecycledSlabs()).isPositive();
+        // Quiet now: whatever is cached is the database value
+        for (int id = 1; id <= products; id++) {
+            byte[] json = cache.get(id);
+            if (json != null) {
+                assertThat(check(json, id, database.get(id))).isNull();
+                assertThat(value(json)).isEqualTo(database.get(id));
+            }
+        }
+    }
+
+    // "{"id":1,"value":2,"pad":"xxx..."}", padded to about the given size
+    private static byte[] json(long id, long value, int size) {
+        String head = "{\"id\":" + id + ",\"value\":" + value + ",\"pad\":\"";
+        char[] pad = new char[Math.max(0, size - head.length() - 2)];
+        Arrays.fill(pad, (char) ('a' + id % 26));
+        return (head + new String(pad) + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String check(byte[] json, long id, long minValue) {
+        String text = new String(json, StandardCharsets.UTF_8);
+        if (!text.startsWith("{\"id\":" + id + ",") || !text.endsWith("\"}")) {
+            return "wrong product or torn: " + text.substring(0, Math.min(60, text.length()));
+        }
+        char padChar = (char) ('a' + id % 26);
+        for (int i = text.indexOf(",\"pad\":\"") + 8; i < text.length() - 2; i++) {
+            if (text.charAt(i) != padChar) {
+                return "torn bytes in product " + id;
+            }
+        }
+        long value = value(json);
+        return value < minValue ? "product " + id + " served value " + value + " after " + minValue : null;
+    }
+
+    private static long value(byte[] json) {
+        String text = new String(json, StandardCharsets.UTF_8);
+        int start = text.indexOf("\"value\":") + 8;
+        return Long.parseLong(text.substring(start, text.indexOf(',', start)));
+    }
+}
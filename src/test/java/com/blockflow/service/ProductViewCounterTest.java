@@ -0,0 +1,112 @@
+package com.blockflow.service;
+
+import com.blockflow.search.ProductSearchIndex;
+import com.blockflow.search.ProductSuggestIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductViewCounterTest {
+
+    // Sum of the view_count increments written per product
+    private final Map<Long, Long> written = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            for (Object[] row : batchArgs) {
+                written.merge((Long) row[1], (Long) row[0], Long::sum);
+            }
+            return new int[batchArgs.size()];
+        }
+    };
+
+    private final ProductViewCounter counter = new ProductViewCounter(jdbcTemplate,
+            mock(ProductSearchIndex.class), mock(ProductSuggestIndex.class));
+
+    @Test
+    void flushWritesBufferedViewsPerProduct() {
+        counter.increment(1L);
+        counter.increment(1L);
+        counter.increment(2L);
+
+        counter.flush();
+
+        assertThat(written).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 2L, 2L, 1L));
+        assertThat(counter.getPendingViews()).isZero();
+        assertThat(counter.getFlushedViews()).isEqualTo(3);
+    }
+
+    @Test
+    void productsIdleForAFlushIntervalAreNoLongerTracked() {
+        counter.increment(1L);
+        counter.increment(2L);
+        counter.flush();
+        assertThat(counter.getTrackedProducts()).isEqualTo(2);
+
+        counter.increment(2L);
+        counter.flush();
+
+        assertThat(counter.getTrackedProducts()).isEqualTo(1);
+        counter.flush();
+        assertThat(counter.getTrackedProducts()).isZero();
+        assertThat(written).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 1L, 2L, 2L));
+    }
+
+    @Test
+    void viewsRacingWithFlushesAreWrittenExactlyOnce() throws Exception {
+        int threads = 4;
+        int viewsPerThread = 200_000;
+        int products = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean viewing = new AtomicBoolean(true);
+        try {
+            // Flushing non-stop retires idle adders while views keep coming in
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (viewing.get()) {
+                    counter.flush();
+                }
+                return null;
+            });
+            Future<?>[] viewers = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                viewers[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < viewsPerThread; i++) {
+                        counter.increment((long) ((i + offset) % products));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> viewer : viewers) {
+                viewer.get(60, TimeUnit.SECONDS);
+            }
+            viewing.set(false);
+            flusher.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        counter.flush();
+
+        assertThat(written.values().stream().mapToLong(Long::longValue).sum())
+                .isEqualTo((long) threads * viewsPerThread);
+        assertThat(written).hasSize(products);
+        assertThat(counter.getPendingViews()).isZero();
+    }
+}